@@ -0,0 +1,97 @@
+package com.eleks.benchmark;
+
+import com.eleks.dto.Money;
+import com.eleks.dto.UserStatusResponse;
+import com.eleks.entity.PaymentEntity;
+import com.eleks.util.BalanceKernel;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static java.math.RoundingMode.UP;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceKernelBenchmark {
+
+    @Param({"10", "100"})
+    private int membersCount;
+
+    @Param({"10000"})
+    private int paymentsCount;
+
+    private List<Long> groupMembersIds;
+
+    private List<PaymentEntity> paymentEntities;
+
+    @Setup
+    public void init() {
+        Random random = new Random(42);
+
+        groupMembersIds = LongStream.rangeClosed(1, membersCount).boxed().collect(Collectors.toList());
+        paymentEntities = new ArrayList<>(paymentsCount);
+
+        for (int payment = 0; payment < paymentsCount; payment++) {
+            List<Long> coPayers = new ArrayList<>(groupMembersIds);
+            Collections.shuffle(coPayers, random);
+
+            paymentEntities.add(PaymentEntity.builder()
+                    .price(Money.ofMinorUnits(random.nextInt(100000)))
+                    .coPayers(new ArrayList<>(coPayers.subList(0, 1 + random.nextInt(Math.max(1, membersCount / 3)))))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> balanceKernel() {
+        BalanceKernel balanceKernel = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntities.forEach(balanceKernel::fold);
+
+        return balanceKernel.memberBalances(1L);
+    }
+
+    @Benchmark
+    public Map<Long, UserStatusResponse> hashMapReplay() {
+        Map<Long, UserStatusResponse> userStatusResponseMap = new HashMap<>();
+
+        groupMembersIds.forEach(groupMemberId -> userStatusResponseMap.put(groupMemberId,
+                UserStatusResponse.builder().userId(groupMemberId).value(new BigDecimal(0)).build()));
+
+        paymentEntities.forEach(paymentEntity -> calculateOwings(paymentEntity, userStatusResponseMap, 1L));
+
+        return userStatusResponseMap;
+    }
+
+    //replay which was used by status endpoint before balance kernel, kept here as a baseline
+    private void calculateOwings(PaymentEntity paymentEntity, Map<Long, UserStatusResponse> userStatusResponseMap, Long userId) {
+        Set<Long> groupMembersIds = userStatusResponseMap.keySet();
+
+        List<Long> owersIds = groupMembersIds.stream()
+                .filter(groupMemberId -> !paymentEntity.getCoPayers().contains(groupMemberId))
+                .collect(Collectors.toList());
+
+        if (!owersIds.isEmpty()) {
+            double owingSum = (paymentEntity.getPrice().toBigDecimal().doubleValue() / groupMembersIds.size()) / paymentEntity.getCoPayers().size();
+
+            if (paymentEntity.getCoPayers().contains(userId)) {
+                owersIds.forEach(owerId -> {
+                    UserStatusResponse userStatusResponseOwer = userStatusResponseMap.get(owerId);
+                    userStatusResponseOwer.setValue(userStatusResponseOwer.getValue().add(new BigDecimal(owingSum)).setScale(3, UP));
+                });
+            } else {
+                paymentEntity.getCoPayers().forEach(coPayer -> {
+                    UserStatusResponse userStatusResponseCoPayer = userStatusResponseMap.get(coPayer);
+                    userStatusResponseCoPayer.setValue(userStatusResponseCoPayer.getValue().subtract(new BigDecimal(owingSum)).setScale(3, UP));
+                });
+            }
+        }
+    }
+}
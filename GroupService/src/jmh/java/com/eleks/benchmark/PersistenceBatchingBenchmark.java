@@ -0,0 +1,206 @@
+package com.eleks.benchmark;
+
+import com.eleks.dto.Money;
+import com.eleks.entity.GroupEntity;
+import com.eleks.entity.PaymentEntity;
+import com.eleks.entity.UserEntity;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+//entities are persisted to in-memory H2 with the same id generation and ordering settings as application.yml, every statement
+//execution or batch execution additionally costs fixed round trip; batchSize = 1 reproduces statement per row behaviour
+//of identity ids, number of round trips per operation is printed at the end of every trial
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBatchingBenchmark {
+
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private static final AtomicLong ROUND_TRIPS = new AtomicLong();
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    @Param({"1000"})
+    private int rowsCount;
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactoryBean;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    private AtomicLong groupsCounter = new AtomicLong();
+
+    private AtomicLong paymentsCounter = new AtomicLong();
+
+    private Long groupId;
+
+    private List<Long> groupMembersIds;
+
+    @Setup(Level.Iteration)
+    public void init() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "") {
+
+            @Override
+            protected Connection getConnectionFromDriver(String username, String password) throws SQLException {
+                return withRoundTrips(super.getConnectionFromDriver(username, password), Connection.class);
+            }
+        };
+
+        Map<String, Object> jpaProperties = new HashMap<>();
+        jpaProperties.put("hibernate.hbm2ddl.auto", "create-drop");
+        jpaProperties.put("hibernate.id.new_generator_mappings", "true");
+        jpaProperties.put("hibernate.jdbc.batch_size", String.valueOf(batchSize));
+        jpaProperties.put("hibernate.order_inserts", "true");
+        jpaProperties.put("hibernate.order_updates", "true");
+
+        entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactoryBean.setDataSource(dataSource);
+        entityManagerFactoryBean.setPackagesToScan("com.eleks.entity");
+        entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactoryBean.setJpaPropertyMap(jpaProperties);
+        entityManagerFactoryBean.afterPropertiesSet();
+
+        entityManagerFactory = entityManagerFactoryBean.getObject();
+
+        groupMembersIds = LongStream.rangeClosed(1, 10).boxed().collect(Collectors.toList());
+
+        GroupEntity groupEntity = createGroupEntity(groupMembersIds);
+        inTransaction(entityManager -> entityManager.persist(groupEntity));
+        groupId = groupEntity.getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void destroy() {
+        entityManagerFactoryBean.destroy();
+    }
+
+    @Benchmark
+    public GroupEntity createGroup(RoundTripsCounter roundTripsCounter) {
+        GroupEntity groupEntity = createGroupEntity(LongStream.rangeClosed(1, rowsCount).boxed().collect(Collectors.toList()));
+
+        roundTripsCounter.count(() -> inTransaction(entityManager -> entityManager.persist(groupEntity)));
+
+        return groupEntity;
+    }
+
+    @Benchmark
+    public List<PaymentEntity> ingestPayments(RoundTripsCounter roundTripsCounter) {
+        Random random = new Random(42);
+        List<PaymentEntity> paymentEntities = new ArrayList<>(rowsCount);
+
+        for (int payment = 0; payment < rowsCount; payment++) {
+            List<Long> coPayers = new ArrayList<>(groupMembersIds);
+            Collections.shuffle(coPayers, random);
+
+            paymentEntities.add(PaymentEntity.builder()
+                    .groupId(groupId)
+                    .paymentDescription("benchmarkPayment")
+                    .price(Money.ofMinorUnits(random.nextInt(100000)))
+                    .coPayers(new ArrayList<>(coPayers.subList(0, 3)))
+                    .creatorId(coPayers.get(0))
+                    .timeStamp(LocalDateTime.now())
+                    .sequenceNumber(paymentsCounter.incrementAndGet())
+                    .build());
+        }
+
+        roundTripsCounter.count(() -> inTransaction(entityManager -> paymentEntities.forEach(entityManager::persist)));
+
+        return paymentEntities;
+    }
+
+    private GroupEntity createGroupEntity(List<Long> membersIds) {
+        return GroupEntity.builder()
+                .groupName("benchmarkGroup" + groupsCounter.incrementAndGet())
+                .currency("USD")
+                .members(membersIds.stream()
+                        .map(userId -> UserEntity.builder().userId(userId).build())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    //statements created by connection are wrapped as well, so that their executions can be counted and delayed
+    @SuppressWarnings("unchecked")
+    private static <T> T withRoundTrips(T target, Class<T> targetInterface) {
+        return (T) Proxy.newProxyInstance(targetInterface.getClassLoader(), new Class<?>[]{targetInterface}, (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                ROUND_TRIPS.incrementAndGet();
+                LockSupport.parkNanos(ROUND_TRIP_NANOS);
+            }
+
+            Object result;
+
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (method.getReturnType() == PreparedStatement.class) {
+                return withRoundTrips((PreparedStatement) result, PreparedStatement.class);
+            }
+
+            if (method.getReturnType() == Statement.class) {
+                return withRoundTrips((Statement) result, Statement.class);
+            }
+
+            return result;
+        });
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+
+        try {
+            entityManager.getTransaction().begin();
+            work.accept(entityManager);
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RoundTripsCounter {
+
+        private long operations;
+
+        private long roundTrips;
+
+        private void count(Runnable operation) {
+            long roundTripsBefore = ROUND_TRIPS.get();
+            operation.run();
+
+            roundTrips += ROUND_TRIPS.get() - roundTripsBefore;
+            operations++;
+        }
+
+        @TearDown(Level.Trial)
+        public void print() {
+            System.out.printf("%nround trips per operation: %.1f%n", operations == 0 ? 0.0 : (double) roundTrips / operations);
+        }
+    }
+}
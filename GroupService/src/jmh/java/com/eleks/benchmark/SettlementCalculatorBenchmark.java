@@ -0,0 +1,45 @@
+package com.eleks.benchmark;
+
+import com.eleks.dto.SettlementTransferResponse;
+import com.eleks.util.SettlementCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettlementCalculatorBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int membersCount;
+
+    private Map<Long, BigDecimal> netBalances;
+
+    @Setup
+    public void init() {
+        Random random = new Random(42);
+        netBalances = new HashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (long userId = 1; userId < membersCount; userId++) {
+            BigDecimal balance = BigDecimal.valueOf(random.nextInt(2000000) - 1000000, 3);
+            netBalances.put(userId, balance);
+            total = total.add(balance);
+        }
+        netBalances.put((long) membersCount, total.negate());
+    }
+
+    @Benchmark
+    public List<SettlementTransferResponse> calculateTransfers() {
+        return SettlementCalculator.calculateTransfers(netBalances, "USD");
+    }
+}
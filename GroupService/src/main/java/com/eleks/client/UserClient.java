@@ -5,10 +5,19 @@ import com.eleks.dto.UsersBulkRequestDto;
 import com.eleks.exception.UserServiceException;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserClient {
 
     boolean areUserIdsValid(UsersBulkRequestDto usersBulkRequestDto) throws UserServiceException;
 
     List<UserResponseDto> retrieveUsersByIds(UsersBulkRequestDto usersBulkRequestDto);
+
+    List<Long> retrieveExistingUserIds(UsersBulkRequestDto usersBulkRequestDto);
+
+    CompletableFuture<Boolean> areUserIdsValidAsync(UsersBulkRequestDto usersBulkRequestDto);
+
+    CompletableFuture<List<UserResponseDto>> retrieveUsersByIdsAsync(UsersBulkRequestDto usersBulkRequestDto);
+
+    CompletableFuture<List<Long>> retrieveExistingUserIdsAsync(UsersBulkRequestDto usersBulkRequestDto);
 }
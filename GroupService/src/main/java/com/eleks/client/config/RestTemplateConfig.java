@@ -1,14 +1,79 @@
 package com.eleks.client.config;
 
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    RestTemplate restTemplate() {
-        return new RestTemplate();
+    PoolingHttpClientConnectionManager httpClientConnectionManager(@Value("${users.http.maxConnections}") int maxConnections,
+                                                                   @Value("${users.http.maxConnectionsPerRoute}") int maxConnectionsPerRoute,
+                                                                   @Value("${users.http.validateAfterInactivity}") int validateAfterInactivity) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+
+        return connectionManager;
+    }
+
+    @Bean
+    CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpClientConnectionManager,
+                                   @Value("${users.http.connectTimeout}") int connectTimeout,
+                                   @Value("${users.http.readTimeout}") int readTimeout,
+                                   @Value("${users.http.connectionRequestTimeout}") int connectionRequestTimeout,
+                                   @Value("${users.http.idleEviction}") long idleEviction) {
+        return HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(connectTimeout)
+                        .setSocketTimeout(readTimeout)
+                        .setConnectionRequestTimeout(connectionRequestTimeout)
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEviction, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    //bounded bulkhead, calls beyond its threads and queue capacity are rejected instead of piling up behind slow user service
+    @Bean(destroyMethod = "shutdown")
+    ExecutorService userClientExecutor(@Value("${users.bulkhead.threads}") int threads,
+                                       @Value("${users.bulkhead.queueCapacity}") int queueCapacity) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    @Bean
+    PublicMetrics httpClientPoolMetrics(PoolingHttpClientConnectionManager httpClientConnectionManager) {
+        return () -> {
+            PoolStats poolStats = httpClientConnectionManager.getTotalStats();
+
+            return Arrays.asList(
+                    new Metric<>("users.http.pool.leased", poolStats.getLeased()),
+                    new Metric<>("users.http.pool.available", poolStats.getAvailable()),
+                    new Metric<>("users.http.pool.pending", poolStats.getPending()),
+                    new Metric<>("users.http.pool.max", poolStats.getMax()));
+        };
     }
 }
@@ -0,0 +1,178 @@
+package com.eleks.client.impl;
+
+import com.eleks.client.UserClient;
+import com.eleks.dto.UserResponseDto;
+import com.eleks.dto.UsersBulkRequestDto;
+import com.eleks.exception.UserServiceException;
+import com.eleks.util.FutureUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//lookups of concurrent requests arriving within batch window are sent to user service as one search of their union,
+//users searches and ids searches are batched separately as they go to different endpoints
+@Component
+public class BatchingUserClient implements UserClient {
+
+    private UserClient userClient;
+
+    private long batchWindow;
+
+    private int maxBatchSize;
+
+    private ScheduledExecutorService batchExecutor;
+
+    private BatchQueue<Map<Long, UserResponseDto>> usersQueue;
+
+    private BatchQueue<Set<Long>> userIdsQueue;
+
+    @Autowired
+    public BatchingUserClient(@Qualifier("circuitBreakingUserClient") UserClient userClient,
+                              @Value("${users.batch.window}") long batchWindow,
+                              @Value("${users.batch.maxSize}") int maxBatchSize,
+                              @Value("${users.batch.threads}") int threads) {
+        this.userClient = userClient;
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+        this.batchExecutor = Executors.newScheduledThreadPool(threads);
+        this.usersQueue = new BatchQueue<>(userIds -> userClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(userIds))
+                .thenApply(userResponseDtos -> userResponseDtos.stream()
+                        .collect(Collectors.toMap(UserResponseDto::getId, Function.identity(), (first, second) -> first))));
+        this.userIdsQueue = new BatchQueue<>(userIds -> userClient.retrieveExistingUserIdsAsync(new UsersBulkRequestDto(userIds))
+                .thenApply(HashSet::new));
+    }
+
+    @Override
+    public boolean areUserIdsValid(UsersBulkRequestDto usersBulkRequestDto) throws UserServiceException {
+        return FutureUtil.join(areUserIdsValidAsync(usersBulkRequestDto));
+    }
+
+    @Override
+    public List<UserResponseDto> retrieveUsersByIds(UsersBulkRequestDto usersBulkRequestDto) {
+        return FutureUtil.join(retrieveUsersByIdsAsync(usersBulkRequestDto));
+    }
+
+    @Override
+    public List<Long> retrieveExistingUserIds(UsersBulkRequestDto usersBulkRequestDto) {
+        return FutureUtil.join(retrieveExistingUserIdsAsync(usersBulkRequestDto));
+    }
+
+    //requests which user service rejects aren't batched, so they can't fail validation of other requests in the same batch
+    @Override
+    public CompletableFuture<Boolean> areUserIdsValidAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        if (!isBatchable(usersBulkRequestDto)) {
+            return userClient.areUserIdsValidAsync(usersBulkRequestDto);
+        }
+
+        return userIdsQueue.add(usersBulkRequestDto.getUserIds()).thenApply(userIds -> userIds.containsAll(usersBulkRequestDto.getUserIds()));
+    }
+
+    @Override
+    public CompletableFuture<List<UserResponseDto>> retrieveUsersByIdsAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        return usersQueue.add(usersBulkRequestDto.getUserIds()).thenApply(users -> usersBulkRequestDto.getUserIds().stream()
+                .distinct()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> retrieveExistingUserIdsAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        if (!isBatchable(usersBulkRequestDto)) {
+            return userClient.retrieveExistingUserIdsAsync(usersBulkRequestDto);
+        }
+
+        return userIdsQueue.add(usersBulkRequestDto.getUserIds()).thenApply(userIds -> usersBulkRequestDto.getUserIds().stream()
+                .distinct()
+                .filter(userIds::contains)
+                .collect(Collectors.toList()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdown();
+    }
+
+    private boolean isBatchable(UsersBulkRequestDto usersBulkRequestDto) {
+        return Objects.nonNull(usersBulkRequestDto.getUserIds()) && !usersBulkRequestDto.getUserIds().isEmpty()
+                && !usersBulkRequestDto.getUserIds().contains(null);
+    }
+
+    private class BatchQueue<T> {
+
+        private Function<List<Long>, CompletableFuture<T>> search;
+
+        private UsersBatch<T> currentBatch;
+
+        private BatchQueue(Function<List<Long>, CompletableFuture<T>> search) {
+            this.search = search;
+        }
+
+        private CompletableFuture<T> add(List<Long> userIds) {
+            CompletableFuture<T> batchResult;
+
+            synchronized (this) {
+                if (Objects.isNull(currentBatch)) {
+                    UsersBatch<T> usersBatch = new UsersBatch<>();
+                    currentBatch = usersBatch;
+                    batchExecutor.schedule(() -> flush(usersBatch), batchWindow, TimeUnit.MILLISECONDS);
+                }
+
+                currentBatch.userIds.addAll(userIds);
+                batchResult = currentBatch.result;
+
+                if (currentBatch.userIds.size() >= maxBatchSize) {
+                    UsersBatch<T> usersBatch = currentBatch;
+                    currentBatch = null;
+                    batchExecutor.execute(() -> execute(usersBatch));
+                }
+            }
+
+            return batchResult;
+        }
+
+        private void flush(UsersBatch<T> usersBatch) {
+            synchronized (this) {
+                if (currentBatch != usersBatch) {
+                    return;
+                }
+
+                currentBatch = null;
+            }
+
+            execute(usersBatch);
+        }
+
+        private void execute(UsersBatch<T> usersBatch) {
+            try {
+                search.apply(new ArrayList<>(usersBatch.userIds))
+                        .whenComplete((result, e) -> {
+                            if (Objects.nonNull(e)) {
+                                usersBatch.result.completeExceptionally(e);
+                            } else {
+                                usersBatch.result.complete(result);
+                            }
+                        });
+            } catch (RuntimeException e) {
+                usersBatch.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class UsersBatch<T> {
+
+        private final Set<Long> userIds = new LinkedHashSet<>();
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+    }
+}
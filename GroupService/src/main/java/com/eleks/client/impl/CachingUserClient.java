@@ -0,0 +1,114 @@
+package com.eleks.client.impl;
+
+import com.eleks.client.UserClient;
+import com.eleks.dto.UserResponseDto;
+import com.eleks.dto.UsersBulkRequestDto;
+import com.eleks.exception.UserServiceException;
+import com.eleks.util.ExpiringLruCache;
+import com.eleks.util.FutureUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Primary
+@Component
+public class CachingUserClient implements UserClient, PublicMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingUserClient.class);
+
+    private UserClient userClient;
+
+    private ExpiringLruCache<Long, UserResponseDto> usersCache;
+
+    @Autowired
+    public CachingUserClient(@Qualifier("batchingUserClient") UserClient userClient,
+                             @Value("${users.cache.maxSize}") int maxSize,
+                             @Value("${users.cache.ttl}") long ttl) {
+        this.userClient = userClient;
+        this.usersCache = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    @Override
+    public boolean areUserIdsValid(UsersBulkRequestDto usersBulkRequestDto) throws UserServiceException {
+        return userClient.areUserIdsValid(usersBulkRequestDto);
+    }
+
+    @Override
+    public List<UserResponseDto> retrieveUsersByIds(UsersBulkRequestDto usersBulkRequestDto) {
+        return FutureUtil.join(retrieveUsersByIdsAsync(usersBulkRequestDto));
+    }
+
+    @Override
+    public List<Long> retrieveExistingUserIds(UsersBulkRequestDto usersBulkRequestDto) {
+        return userClient.retrieveExistingUserIds(usersBulkRequestDto);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> areUserIdsValidAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        return userClient.areUserIdsValidAsync(usersBulkRequestDto);
+    }
+
+    @Override
+    public CompletableFuture<List<UserResponseDto>> retrieveUsersByIdsAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        Map<Long, UserResponseDto> users = new LinkedHashMap<>();
+        List<Long> missingUserIds = new ArrayList<>();
+
+        new LinkedHashSet<>(usersBulkRequestDto.getUserIds()).forEach(userId -> {
+            UserResponseDto userResponseDto = usersCache.get(userId);
+            users.put(userId, userResponseDto);
+
+            if (Objects.isNull(userResponseDto)) {
+                missingUserIds.add(userId);
+            }
+        });
+
+        if (missingUserIds.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>(users.values()));
+        }
+
+        //when missing users can't be fetched, cached ones are still returned as their last known values;
+        //failure is passed on only when there is nothing cached to fall back to
+        return userClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(missingUserIds)).handle((userResponseDtos, throwable) -> {
+            if (Objects.nonNull(throwable)) {
+                if (missingUserIds.size() == users.size()) {
+                    throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+                }
+
+                LOGGER.warn("Users {} are not available, only cached users are returned: {}", missingUserIds, throwable.getMessage());
+            } else {
+                userResponseDtos.forEach(userResponseDto -> {
+                    usersCache.put(userResponseDto.getId(), userResponseDto);
+                    users.replace(userResponseDto.getId(), userResponseDto);
+                });
+            }
+
+            users.values().removeIf(Objects::isNull);
+
+            return new ArrayList<>(users.values());
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> retrieveExistingUserIdsAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        return userClient.retrieveExistingUserIdsAsync(usersBulkRequestDto);
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("users.cache.hits", usersCache.getHits()),
+                new Metric<>("users.cache.misses", usersCache.getMisses()),
+                new Metric<>("users.cache.evictions", usersCache.getEvictions()),
+                new Metric<>("users.cache.size", usersCache.size()));
+    }
+}
@@ -0,0 +1,123 @@
+package com.eleks.client.impl;
+
+import com.eleks.client.UserClient;
+import com.eleks.dto.UserResponseDto;
+import com.eleks.dto.UsersBulkRequestDto;
+import com.eleks.exception.UserServiceException;
+import com.eleks.util.CircuitBreaker;
+import com.eleks.util.FutureUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+//calls are rejected right away while user service is failing or bulkhead of user client executor is full
+@Component
+public class CircuitBreakingUserClient implements UserClient, PublicMetrics {
+
+    private UserClient userClient;
+
+    private CircuitBreaker circuitBreaker;
+
+    private AtomicLong bulkheadRejections = new AtomicLong();
+
+    @Autowired
+    public CircuitBreakingUserClient(@Qualifier("userClientImpl") UserClient userClient,
+                                     @Value("${users.circuitBreaker.failureThreshold}") int failureThreshold,
+                                     @Value("${users.circuitBreaker.openDuration}") long openDuration) {
+        this.userClient = userClient;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    @Override
+    public boolean areUserIdsValid(UsersBulkRequestDto usersBulkRequestDto) throws UserServiceException {
+        return FutureUtil.join(areUserIdsValidAsync(usersBulkRequestDto));
+    }
+
+    @Override
+    public List<UserResponseDto> retrieveUsersByIds(UsersBulkRequestDto usersBulkRequestDto) {
+        return FutureUtil.join(retrieveUsersByIdsAsync(usersBulkRequestDto));
+    }
+
+    @Override
+    public List<Long> retrieveExistingUserIds(UsersBulkRequestDto usersBulkRequestDto) {
+        return FutureUtil.join(retrieveExistingUserIdsAsync(usersBulkRequestDto));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> areUserIdsValidAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        return call(() -> userClient.areUserIdsValidAsync(usersBulkRequestDto));
+    }
+
+    @Override
+    public CompletableFuture<List<UserResponseDto>> retrieveUsersByIdsAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        return call(() -> userClient.retrieveUsersByIdsAsync(usersBulkRequestDto));
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> retrieveExistingUserIdsAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        return call(() -> userClient.retrieveExistingUserIdsAsync(usersBulkRequestDto));
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("users.circuitBreaker.state", circuitBreaker.getState().ordinal()),
+                new Metric<>("users.circuitBreaker.openings", circuitBreaker.getOpenings()),
+                new Metric<>("users.circuitBreaker.halfOpenings", circuitBreaker.getHalfOpenings()),
+                new Metric<>("users.circuitBreaker.closings", circuitBreaker.getClosings()),
+                new Metric<>("users.circuitBreaker.rejections", circuitBreaker.getRejections()),
+                new Metric<>("users.bulkhead.rejections", bulkheadRejections.get()));
+    }
+
+    private <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> userServiceCall) {
+        if (!circuitBreaker.tryAcquire()) {
+            return failedFuture(new UserServiceException("User service circuit breaker is open"));
+        }
+
+        CompletableFuture<T> result;
+
+        try {
+            result = userServiceCall.get();
+        } catch (RejectedExecutionException e) {
+            bulkheadRejections.incrementAndGet();
+            circuitBreaker.onFailure();
+            return failedFuture(new UserServiceException("User service bulkhead is full", e));
+        }
+
+        return result.whenComplete((value, e) -> {
+            if (Objects.isNull(e) || isClientError(e)) {
+                circuitBreaker.onSuccess();
+            } else {
+                circuitBreaker.onFailure();
+            }
+        });
+    }
+
+    //4xx responses mean that user service is up, so they don't count as failures
+    private boolean isClientError(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+
+        return Objects.nonNull(cause) && cause.getCause() instanceof HttpClientErrorException;
+    }
+
+    private <T> CompletableFuture<T> failedFuture(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+
+        return future;
+    }
+}
@@ -5,15 +5,20 @@ import com.eleks.dto.UserResponseDto;
 import com.eleks.dto.UsersBulkRequestDto;
 import com.eleks.exception.UserServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Component
 public class UserClientImpl implements UserClient {
@@ -22,10 +27,14 @@ public class UserClientImpl implements UserClient {
 
     private RestTemplate restTemplate;
 
+    private Executor userClientExecutor;
+
     @Autowired
-    public UserClientImpl(@Value("${users.endPointHost}") String baseEndPointsUrl, RestTemplate restTemplate) {
+    public UserClientImpl(@Value("${users.endPointHost}") String baseEndPointsUrl, RestTemplate restTemplate,
+                          @Qualifier("userClientExecutor") Executor userClientExecutor) {
         this.baseEndPointsUrl = baseEndPointsUrl;
         this.restTemplate = restTemplate;
+        this.userClientExecutor = userClientExecutor;
     }
 
     @Override
@@ -36,22 +45,22 @@ public class UserClientImpl implements UserClient {
 
         HttpEntity<UsersBulkRequestDto> httpEntity = new HttpEntity<>(usersBulkRequestDto, headers);
 
-        ResponseEntity<List<UserResponseDto>> usersListResponseEntity;
+        ResponseEntity<List<Long>> userIdsListResponseEntity;
 
         try {
-            usersListResponseEntity = restTemplate.exchange(baseEndPointsUrl + "/users/search",
+            userIdsListResponseEntity = restTemplate.exchange(baseEndPointsUrl + "/users/search/ids",
                     HttpMethod.POST,
                     httpEntity,
-                    new ParameterizedTypeReference<List<UserResponseDto>>() {
+                    new ParameterizedTypeReference<List<Long>>() {
                     });
 
         } catch (HttpClientErrorException ex) {
             return false;
-        } catch (HttpServerErrorException ex) {
+        } catch (HttpServerErrorException | ResourceAccessException ex) {
             throw new UserServiceException(ex.getMessage(), ex);
         }
 
-        return usersListResponseEntity.hasBody() && usersListResponseEntity.getBody().size() == usersBulkRequestDto.getUserIds().size();
+        return userIdsListResponseEntity.hasBody() && userIdsListResponseEntity.getBody().containsAll(usersBulkRequestDto.getUserIds());
     }
 
     @Override
@@ -75,10 +84,52 @@ public class UserClientImpl implements UserClient {
                 throw new UserServiceException("Response from user client has no body");
             }
 
-        } catch (HttpClientErrorException | HttpServerErrorException ex) {
+        } catch (HttpClientErrorException | HttpServerErrorException | ResourceAccessException ex) {
             throw new UserServiceException(ex.getMessage(), ex);
         }
 
         return usersListResponseEntity.getBody();
     }
+
+    //ids rejected by user service are reported as not existing, the same way as they aren't valid for areUserIdsValid
+    @Override
+    public List<Long> retrieveExistingUserIds(UsersBulkRequestDto usersBulkRequestDto) {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<UsersBulkRequestDto> httpEntity = new HttpEntity<>(usersBulkRequestDto, headers);
+
+        ResponseEntity<List<Long>> userIdsListResponseEntity;
+
+        try {
+            userIdsListResponseEntity = restTemplate.exchange(baseEndPointsUrl + "/users/search/ids",
+                    HttpMethod.POST,
+                    httpEntity,
+                    new ParameterizedTypeReference<List<Long>>() {
+                    });
+
+        } catch (HttpClientErrorException ex) {
+            return Collections.emptyList();
+        } catch (HttpServerErrorException | ResourceAccessException ex) {
+            throw new UserServiceException(ex.getMessage(), ex);
+        }
+
+        return userIdsListResponseEntity.hasBody() ? userIdsListResponseEntity.getBody() : Collections.emptyList();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> areUserIdsValidAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        return CompletableFuture.supplyAsync(() -> areUserIdsValid(usersBulkRequestDto), userClientExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<UserResponseDto>> retrieveUsersByIdsAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        return CompletableFuture.supplyAsync(() -> retrieveUsersByIds(usersBulkRequestDto), userClientExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> retrieveExistingUserIdsAsync(UsersBulkRequestDto usersBulkRequestDto) {
+        return CompletableFuture.supplyAsync(() -> retrieveExistingUserIds(usersBulkRequestDto), userClientExecutor);
+    }
 }
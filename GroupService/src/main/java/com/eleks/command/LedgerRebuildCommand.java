@@ -0,0 +1,56 @@
+package com.eleks.command;
+
+import com.eleks.entity.GroupEntity;
+import com.eleks.repository.GroupRepository;
+import com.eleks.service.DebtLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//run application with --ledger.rebuild to recompute ledger of all groups or --ledger.rebuild=1,2 for particular groups
+@Component
+public class LedgerRebuildCommand implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerRebuildCommand.class);
+
+    private static final String LEDGER_REBUILD_OPTION = "ledger.rebuild";
+
+    private GroupRepository groupRepository;
+
+    private DebtLedgerService debtLedgerService;
+
+    @Autowired
+    public LedgerRebuildCommand(GroupRepository groupRepository, DebtLedgerService debtLedgerService) {
+        this.groupRepository = groupRepository;
+        this.debtLedgerService = debtLedgerService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(LEDGER_REBUILD_OPTION)) {
+            return;
+        }
+
+        List<Long> groupIds = args.getOptionValues(LEDGER_REBUILD_OPTION).isEmpty() ?
+                groupRepository.findAll().stream()
+                        .map(GroupEntity::getId)
+                        .collect(Collectors.toList()) :
+                args.getOptionValues(LEDGER_REBUILD_OPTION).stream()
+                        .flatMap(groupIdsWithDelimeters -> Stream.of(groupIdsWithDelimeters.split(",")))
+                        .map(String::trim)
+                        .map(Long::valueOf)
+                        .collect(Collectors.toList());
+
+        groupIds.forEach(groupId -> {
+            debtLedgerService.rebuildLedger(groupId);
+            LOGGER.info("Ledger of group with id {} has been rebuilt", groupId);
+        });
+    }
+}
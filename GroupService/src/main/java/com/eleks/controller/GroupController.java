@@ -1,15 +1,19 @@
 package com.eleks.controller;
 
+import com.eleks.dto.GroupBalancesResponse;
 import com.eleks.dto.GroupRequestDto;
 import com.eleks.dto.GroupResponseDto;
+import com.eleks.dto.SettlementTransferResponse;
 import com.eleks.dto.UserStatusResponse;
 import com.eleks.service.GroupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -50,7 +54,18 @@ public class GroupController {
     }
 
     @GetMapping(value = "{groupId}/users/{userId}/status")
-    List<UserStatusResponse> retrieveGroupMemberOwings(@PathVariable Long groupId, @PathVariable Long userId) {
-        return groupService.retrieveGroupMemberOwings(groupId, userId);
+    List<UserStatusResponse> retrieveGroupMemberOwings(@PathVariable Long groupId, @PathVariable Long userId,
+                                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        return groupService.retrieveGroupMemberOwings(groupId, userId, asOf);
+    }
+
+    @GetMapping(value = "{groupId}/settlement")
+    List<SettlementTransferResponse> retrieveGroupSettlement(@PathVariable Long groupId) {
+        return groupService.retrieveGroupSettlement(groupId);
+    }
+
+    @GetMapping(value = "{groupId}/balances")
+    GroupBalancesResponse retrieveGroupBalances(@PathVariable Long groupId) {
+        return groupService.retrieveGroupBalances(groupId);
     }
 }
@@ -2,6 +2,7 @@ package com.eleks.controller;
 
 import com.eleks.dto.PaymentRequestDto;
 import com.eleks.dto.PaymentResponseDto;
+import com.eleks.dto.PaymentsPageResponse;
 import com.eleks.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -9,7 +10,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
-import java.util.List;
 
 @RestController
 @RequestMapping(value = "/groups/{groupId}/payments")
@@ -30,8 +30,9 @@ public class PaymentController {
     }
 
     @GetMapping
-    List<PaymentResponseDto> retrievePayments(@PathVariable Long groupId) {
-        return paymentService.retrievePayments(groupId);
+    PaymentsPageResponse retrievePayments(@PathVariable Long groupId, @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "50") Integer limit) {
+        return paymentService.retrievePayments(groupId, cursor, limit);
     }
 
     @GetMapping(value = "{paymentId}")
@@ -0,0 +1,49 @@
+package com.eleks.controller;
+
+import com.eleks.dto.PaymentRequestDto;
+import com.eleks.dto.PaymentsImportResponse;
+import com.eleks.service.PaymentImportService;
+import com.eleks.util.PaymentImportReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+//import isn't mapped under /payments, because its path segment is payments:import rather than child of payments
+@RestController
+@RequestMapping(value = "/groups/{groupId}")
+public class PaymentImportController {
+
+    private PaymentImportService paymentImportService;
+
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    public PaymentImportController(PaymentImportService paymentImportService, ObjectMapper objectMapper) {
+        this.paymentImportService = paymentImportService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(value = "payments:import", consumes = {PaymentImportReader.NDJSON_MEDIA_TYPE, PaymentImportReader.CSV_MEDIA_TYPE})
+    PaymentsImportResponse importPayments(@PathVariable Long groupId, @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          InputStream body) throws IOException {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        Charset charset = Objects.isNull(mediaType.getCharset()) ? StandardCharsets.UTF_8 : mediaType.getCharset();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+
+        PaymentImportReader paymentImportReader = mediaType.isCompatibleWith(MediaType.parseMediaType(PaymentImportReader.CSV_MEDIA_TYPE))
+                ? PaymentImportReader.csv(reader)
+                : PaymentImportReader.ndjson(reader, objectMapper.readerFor(PaymentRequestDto.class));
+
+        return paymentImportService.importPayments(groupId, paymentImportReader);
+    }
+}
@@ -0,0 +1,21 @@
+package com.eleks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class GroupBalancesResponse {
+
+    private Long groupId;
+
+    private String currency;
+
+    private List<MemberBalanceResponse> members;
+}
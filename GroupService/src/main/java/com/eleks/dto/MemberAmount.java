@@ -0,0 +1,15 @@
+package com.eleks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class MemberAmount {
+
+    private Long userId;
+
+    private Long amount;
+}
@@ -0,0 +1,26 @@
+package com.eleks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class MemberBalanceResponse {
+
+    private Long userId;
+
+    private String userName;
+
+    private BigDecimal value;
+
+    private BigDecimal paid;
+
+    private List<UserStatusResponse> owings;
+}
@@ -0,0 +1,15 @@
+package com.eleks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PaymentImportError {
+
+    private Integer line;
+
+    private String message;
+}
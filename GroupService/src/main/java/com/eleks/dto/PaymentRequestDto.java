@@ -19,7 +19,7 @@ public class PaymentRequestDto {
     private String paymentDescription;
 
     @NotNull(message = "Price shouldn't be null")
-    private Double price;
+    private Money price;
 
     @NotNull(message = "Co-payers shouldn't be null")
     private List<Long> coPayers;
@@ -20,7 +20,7 @@ public class PaymentResponseDto {
 
     private String paymentDescription;
 
-    private Double price;
+    private Money price;
 
     private List<Long> coPayers;
 
@@ -0,0 +1,24 @@
+package com.eleks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PaymentsImportResponse {
+
+    private Integer importedCount;
+
+    private Integer failedCount;
+
+    private List<PaymentImportError> errors;
+
+    //false when body couldn't be read to its end, payments of lines before the last error were still imported
+    private Boolean completed;
+}
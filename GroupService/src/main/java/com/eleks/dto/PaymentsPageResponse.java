@@ -0,0 +1,19 @@
+package com.eleks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PaymentsPageResponse {
+
+    private List<PaymentResponseDto> payments;
+
+    private String next;
+}
@@ -0,0 +1,23 @@
+package com.eleks.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SettlementTransferResponse {
+
+    private Long fromUserId;
+
+    private Long toUserId;
+
+    private String currency;
+
+    private BigDecimal value;
+}
@@ -0,0 +1,43 @@
+package com.eleks.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity(name = "balance_checkpoints")
+public class BalanceCheckpointEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "balanceCheckpointsIdGenerator")
+    @TableGenerator(name = "balanceCheckpointsIdGenerator", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "balance_checkpoints", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @NotNull
+    @Column(name = "last_payment_sequence_number")
+    private Long lastPaymentSequenceNumber;
+
+    @NotNull
+    @Column(name = "last_payment_timestamp")
+    private LocalDateTime lastPaymentTimeStamp;
+
+    @Builder.Default
+    @OneToMany(cascade = CascadeType.ALL)
+    @JoinColumn(name = "checkpoint_id", referencedColumnName = "id")
+    private List<CheckpointDebtEntity> debts = new ArrayList<>();
+}
@@ -0,0 +1,38 @@
+package com.eleks.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity(name = "checkpoint_debts")
+public class CheckpointDebtEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "checkpointDebtsIdGenerator")
+    @TableGenerator(name = "checkpointDebtsIdGenerator", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "checkpoint_debts", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "checkpoint_id")
+    private Long checkpointId;
+
+    @NotNull
+    @Column(name = "creditor_id")
+    private Long creditorId;
+
+    @NotNull
+    @Column(name = "debtor_id")
+    private Long debtorId;
+
+    @NotNull
+    @Column(name = "amount")
+    private Long amount;
+}
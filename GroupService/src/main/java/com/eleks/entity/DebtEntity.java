@@ -0,0 +1,40 @@
+package com.eleks.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity(name = "debts")
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"group_id", "creditor_id", "debtor_id"}))
+public class DebtEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "debtsIdGenerator")
+    @TableGenerator(name = "debtsIdGenerator", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "debts", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @NotNull
+    @Column(name = "creditor_id")
+    private Long creditorId;
+
+    @NotNull
+    @Column(name = "debtor_id")
+    private Long debtorId;
+
+    @NotNull
+    @Column(name = "amount")
+    private Long amount;
+}
@@ -18,7 +18,9 @@ import java.util.List;
 public class GroupEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "groupsIdGenerator")
+    @TableGenerator(name = "groupsIdGenerator", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "groups", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -29,6 +31,12 @@ public class GroupEntity {
     @Column(name = "currency")
     private String currency;
 
+    //payments written since latest checkpoint of group, kept under group lock so checkpoint job doesn't scan payments
+    @NotNull
+    @Builder.Default
+    @Column(name = "payments_since_checkpoint")
+    private Long paymentsSinceCheckpoint = 0L;
+
     @Builder.Default
     @OneToMany(cascade = CascadeType.ALL)
     @JoinColumn(name = "group_id", referencedColumnName = "id")
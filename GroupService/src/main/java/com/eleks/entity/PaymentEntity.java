@@ -1,9 +1,11 @@
 package com.eleks.entity;
 
+import com.eleks.dto.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -19,7 +21,9 @@ import java.util.List;
 public class PaymentEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "paymentsIdGenerator")
+    @TableGenerator(name = "paymentsIdGenerator", table = "id_generators", pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "payments", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -28,10 +32,14 @@ public class PaymentEntity {
 
     @NotNull
     @Column(name = "price")
-    private Double price;
+    private Money price;
 
+    //batch size covers whole payments page, so co-payers of a page are read by one extra select
     @Builder.Default
-    @Column(name = "co_payers")
+    @ElementCollection
+    @CollectionTable(name = "payment_co_payers", joinColumns = @JoinColumn(name = "payment_id"))
+    @Column(name = "user_id")
+    @BatchSize(size = 501)
     private List<Long> coPayers = new ArrayList<>();
 
     @NotNull
@@ -44,4 +52,10 @@ public class PaymentEntity {
 
     @Column(name = "group_id")
     private Long groupId;
+
+    //pooled ids of several instances don't follow insert order, so order of group payments is kept by sequence number
+    //which is assigned under group lock
+    @NotNull
+    @Column(name = "sequence_number")
+    private Long sequenceNumber;
 }
@@ -0,0 +1,21 @@
+package com.eleks.entity.converter;
+
+import com.eleks.dto.Money;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.util.Objects;
+
+@Converter(autoApply = true)
+public class MoneyAttributeConverter implements AttributeConverter<Money, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(Money money) {
+        return Objects.isNull(money) ? null : money.getMinorUnits();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(Long minorUnits) {
+        return Objects.isNull(minorUnits) ? null : Money.ofMinorUnits(minorUnits);
+    }
+}
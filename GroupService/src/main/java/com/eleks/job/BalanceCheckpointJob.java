@@ -0,0 +1,38 @@
+package com.eleks.job;
+
+import com.eleks.service.BalanceCheckpointService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BalanceCheckpointJob {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BalanceCheckpointJob.class);
+
+    private BalanceCheckpointService balanceCheckpointService;
+
+    private Long paymentsCount;
+
+    @Autowired
+    public BalanceCheckpointJob(BalanceCheckpointService balanceCheckpointService,
+                                @Value("${balances.checkpoint.paymentsCount}") Long paymentsCount) {
+        this.balanceCheckpointService = balanceCheckpointService;
+        this.paymentsCount = paymentsCount;
+    }
+
+    @Scheduled(fixedDelayString = "${balances.checkpoint.fixedDelay}")
+    public void writeCheckpoints() {
+        balanceCheckpointService.retrieveGroupIdsDueForCheckpoint(paymentsCount).forEach(groupId -> {
+            try {
+                balanceCheckpointService.writeCheckpoint(groupId);
+                LOGGER.info("Balance checkpoint of group with id {} has been written", groupId);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Balance checkpoint of group with id {} hasn't been written", groupId, e);
+            }
+        });
+    }
+}
@@ -21,7 +21,9 @@ public class PaymentMapper {
                 .groupId(groupId)
                 .paymentDescription(paymentRequestDto.getPaymentDescription())
                 .price(paymentRequestDto.getPrice())
-                .coPayers(paymentRequestDto.getCoPayers())
+                .coPayers(paymentRequestDto.getCoPayers().stream()
+                        .distinct()
+                        .collect(Collectors.toList()))
                 .creatorId(creatorId)
                 .timeStamp(LocalDateTime.now())
                 .build();
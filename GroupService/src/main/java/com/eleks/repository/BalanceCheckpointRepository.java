@@ -0,0 +1,29 @@
+package com.eleks.repository;
+
+import com.eleks.entity.BalanceCheckpointEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpointEntity, Long> {
+
+    Optional<BalanceCheckpointEntity> findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc(Long groupId);
+
+    Optional<BalanceCheckpointEntity> findFirstByGroupIdAndLastPaymentTimeStampLessThanEqualOrderByLastPaymentSequenceNumberDesc(Long groupId, LocalDateTime timeStamp);
+
+    @Modifying
+    @Query("delete from checkpoint_debts d where d.checkpointId in " +
+            "(select c.id from balance_checkpoints c where c.groupId = :groupId and c.lastPaymentSequenceNumber >= :sequenceNumber)")
+    void deleteDebtsByGroupIdAndLastPaymentSequenceNumberFrom(@Param("groupId") Long groupId, @Param("sequenceNumber") Long sequenceNumber);
+
+    @Modifying
+    @Query("delete from balance_checkpoints c where c.groupId = :groupId and c.lastPaymentSequenceNumber >= :sequenceNumber")
+    void deleteByGroupIdAndLastPaymentSequenceNumberFrom(@Param("groupId") Long groupId, @Param("sequenceNumber") Long sequenceNumber);
+}
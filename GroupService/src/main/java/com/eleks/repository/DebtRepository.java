@@ -0,0 +1,33 @@
+package com.eleks.repository;
+
+import com.eleks.dto.MemberAmount;
+import com.eleks.entity.DebtEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DebtRepository extends JpaRepository<DebtEntity, Long> {
+
+    List<DebtEntity> findByGroupId(Long groupId);
+
+    List<DebtEntity> findByGroupIdAndCreditorIdIn(Long groupId, Collection<Long> creditorIds);
+
+    @Query("select d from debts d where d.groupId = :groupId and (d.creditorId = :userId or d.debtorId = :userId)")
+    List<DebtEntity> findByGroupIdAndParticipantId(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+    @Query("select new com.eleks.dto.MemberAmount(d.creditorId, sum(d.amount)) from debts d where d.groupId = :groupId group by d.creditorId")
+    List<MemberAmount> sumAmountsByCreditor(@Param("groupId") Long groupId);
+
+    @Query("select new com.eleks.dto.MemberAmount(d.debtorId, sum(d.amount)) from debts d where d.groupId = :groupId group by d.debtorId")
+    List<MemberAmount> sumAmountsByDebtor(@Param("groupId") Long groupId);
+
+    @Modifying
+    @Query("delete from debts d where d.groupId = :groupId")
+    void deleteByGroupId(@Param("groupId") Long groupId);
+}
@@ -2,8 +2,13 @@ package com.eleks.repository;
 
 import com.eleks.entity.GroupEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +17,15 @@ public interface GroupRepository extends JpaRepository<GroupEntity, Long> {
     Optional<GroupEntity> findById(Long groupId);
 
     Optional<GroupEntity> findByGroupName(String groupName);
+
+    //collections are fetch joined only when use case reads them, so group is loaded by one select instead of one per collection
+    @Query("select distinct g from groups g left join fetch g.members where g.id = :groupId")
+    Optional<GroupEntity> findWithMembersById(@Param("groupId") Long groupId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select g from groups g where g.id = :groupId")
+    Optional<GroupEntity> findByIdForUpdate(@Param("groupId") Long groupId);
+
+    @Query("select g.id from groups g where g.paymentsSinceCheckpoint >= :paymentsCount")
+    List<Long> findIdsByPaymentsSinceCheckpointGreaterThanEqual(@Param("paymentsCount") Long paymentsCount);
 }
@@ -1,11 +1,19 @@
 package com.eleks.repository;
 
 import com.eleks.entity.PaymentEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
@@ -13,4 +21,66 @@ public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
     List<PaymentEntity> findByGroupId(Long groupId);
 
     Optional<PaymentEntity> findById(Long id);
+
+    Optional<PaymentEntity> findByGroupIdAndId(Long groupId, Long id);
+
+    //co-payers aren't entities, so bulk delete of payment doesn't cascade to them
+    @Modifying
+    @Query(value = "DELETE FROM payment_co_payers WHERE payment_id IN (SELECT p.id FROM payments p WHERE p.group_id = :groupId AND p.id = :id)",
+            nativeQuery = true)
+    void deleteCoPayersByGroupIdAndId(@Param("groupId") Long groupId, @Param("id") Long id);
+
+    @Modifying
+    @Query("delete from payments p where p.groupId = :groupId and p.id = :id")
+    int deleteByGroupIdAndId(@Param("groupId") Long groupId, @Param("id") Long id);
+
+    List<PaymentEntity> findByGroupIdOrderByTimeStampAscIdAsc(Long groupId, Pageable pageable);
+
+    @Query("select p from payments p where p.groupId = :groupId and (p.timeStamp > :timeStamp or (p.timeStamp = :timeStamp and p.id > :id)) " +
+            "order by p.timeStamp asc, p.id asc")
+    List<PaymentEntity> findByGroupIdAfterKey(@Param("groupId") Long groupId, @Param("timeStamp") LocalDateTime timeStamp,
+                                              @Param("id") Long id, Pageable pageable);
+
+    //sequence numbers of group payments are assigned under group lock, so max is stable until that lock is released
+    @Query("select coalesce(max(p.sequenceNumber), 0) from payments p where p.groupId = :groupId")
+    Long findMaxSequenceNumberByGroupId(@Param("groupId") Long groupId);
+
+    Long countByGroupIdAndSequenceNumberGreaterThan(Long groupId, Long sequenceNumber);
+
+    //MySQL honours fetch size only with useCursorFetch=true in connection url, otherwise whole result is buffered by driver;
+    //co-payers are fetch joined as streamed payments are detached before they are folded, rows are ordered by sequence number
+    //so that all co-payers rows of a payment are read together
+    @QueryHints({@QueryHint(name = "org.hibernate.fetchSize", value = "1000"), @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select p from payments p left join fetch p.coPayers where p.groupId = :groupId and p.sequenceNumber > :sequenceNumber " +
+            "order by p.sequenceNumber")
+    Stream<PaymentEntity> streamByGroupIdAndSequenceNumberGreaterThan(@Param("groupId") Long groupId, @Param("sequenceNumber") Long sequenceNumber);
+
+    @QueryHints({@QueryHint(name = "org.hibernate.fetchSize", value = "1000"), @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select p from payments p left join fetch p.coPayers where p.groupId = :groupId and p.timeStamp <= :timeStamp order by p.id")
+    Stream<PaymentEntity> streamByGroupIdAndTimeStampLessThanEqual(@Param("groupId") Long groupId, @Param("timeStamp") LocalDateTime timeStamp);
+
+    @QueryHints({@QueryHint(name = "org.hibernate.fetchSize", value = "1000"), @QueryHint(name = "org.hibernate.readOnly", value = "true")})
+    @Query("select p from payments p left join fetch p.coPayers where p.groupId = :groupId and p.sequenceNumber > :sequenceNumber " +
+            "and p.timeStamp between :fromTimeStamp and :toTimeStamp order by p.sequenceNumber")
+    Stream<PaymentEntity> streamByGroupIdAndSequenceNumberGreaterThanAndTimeStampBetween(@Param("groupId") Long groupId,
+                                                                                        @Param("sequenceNumber") Long sequenceNumber,
+                                                                                        @Param("fromTimeStamp") LocalDateTime fromTimeStamp,
+                                                                                        @Param("toTimeStamp") LocalDateTime toTimeStamp);
+
+    //price of payment is shared equally by its co-payers who are still members of group, as in ledger, and remainder
+    //minor units are credited to the co-payer with the lowest id, so shares of every payment add up to its price;
+    //rows are pairs of co-payer id and sum of their shares in minor units
+    @Query(value = "SELECT c.user_id, SUM(FLOOR(p.price / s.co_payers_count) + " +
+            "CASE WHEN c.user_id = s.first_co_payer_id THEN MOD(p.price, s.co_payers_count) ELSE 0 END) " +
+            "FROM payments p " +
+            "JOIN (SELECT mc.payment_id, COUNT(*) AS co_payers_count, MIN(mc.user_id) AS first_co_payer_id " +
+            "FROM payment_co_payers mc " +
+            "JOIN payments mp ON mp.id = mc.payment_id " +
+            "JOIN users mu ON mu.group_id = mp.group_id AND mu.user_id = mc.user_id " +
+            "WHERE mp.group_id = :groupId GROUP BY mc.payment_id) s ON s.payment_id = p.id " +
+            "JOIN payment_co_payers c ON c.payment_id = p.id " +
+            "JOIN users u ON u.group_id = p.group_id AND u.user_id = c.user_id " +
+            "WHERE p.group_id = :groupId GROUP BY c.user_id",
+            nativeQuery = true)
+    List<Object[]> sumPaidSharesByCoPayer(@Param("groupId") Long groupId);
 }
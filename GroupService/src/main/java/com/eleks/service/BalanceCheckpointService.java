@@ -0,0 +1,21 @@
+package com.eleks.service;
+
+import com.eleks.util.BalanceKernel;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BalanceCheckpointService {
+
+    BalanceKernel retrieveBalanceKernel(Long groupId, List<Long> groupMembersIds);
+
+    BalanceKernel retrieveBalanceKernel(Long groupId, List<Long> groupMembersIds, LocalDateTime asOf);
+
+    List<Long> retrieveGroupIdsDueForCheckpoint(Long paymentsCount);
+
+    void writeCheckpoint(Long groupId);
+
+    void invalidateCheckpoints(Long groupId, Long paymentSequenceNumber);
+
+    void deleteCheckpoints(Long groupId);
+}
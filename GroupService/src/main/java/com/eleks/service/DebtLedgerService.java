@@ -0,0 +1,26 @@
+package com.eleks.service;
+
+import com.eleks.entity.PaymentEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public interface DebtLedgerService {
+
+    void registerPayment(PaymentEntity paymentEntity, List<Long> groupMembersIds);
+
+    void registerPayments(List<PaymentEntity> paymentEntities, List<Long> groupMembersIds);
+
+    void unregisterPayment(PaymentEntity paymentEntity, List<Long> groupMembersIds);
+
+    void rebuildLedger(Long groupId);
+
+    void deleteLedger(Long groupId);
+
+    Map<Long, BigDecimal> retrieveMemberBalances(Long groupId, Long userId);
+
+    Map<Long, BigDecimal> retrieveNetBalances(Long groupId);
+
+    Map<Long, Map<Long, BigDecimal>> retrieveAllMemberBalances(Long groupId);
+}
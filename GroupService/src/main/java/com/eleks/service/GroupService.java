@@ -1,9 +1,12 @@
 package com.eleks.service;
 
+import com.eleks.dto.GroupBalancesResponse;
 import com.eleks.dto.GroupRequestDto;
 import com.eleks.dto.GroupResponseDto;
+import com.eleks.dto.SettlementTransferResponse;
 import com.eleks.dto.UserStatusResponse;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface GroupService {
@@ -16,5 +19,9 @@ public interface GroupService {
 
     void updateGroup(Long groupId, GroupRequestDto groupRequestDto);
 
-    List<UserStatusResponse> retrieveGroupMemberOwings(Long groupId, Long userId);
+    List<UserStatusResponse> retrieveGroupMemberOwings(Long groupId, Long userId, LocalDateTime asOf);
+
+    List<SettlementTransferResponse> retrieveGroupSettlement(Long groupId);
+
+    GroupBalancesResponse retrieveGroupBalances(Long groupId);
 }
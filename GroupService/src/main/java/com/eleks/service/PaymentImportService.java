@@ -0,0 +1,9 @@
+package com.eleks.service;
+
+import com.eleks.dto.PaymentsImportResponse;
+import com.eleks.util.PaymentImportReader;
+
+public interface PaymentImportService {
+
+    PaymentsImportResponse importPayments(Long groupId, PaymentImportReader paymentImportReader);
+}
@@ -2,14 +2,13 @@ package com.eleks.service;
 
 import com.eleks.dto.PaymentRequestDto;
 import com.eleks.dto.PaymentResponseDto;
-
-import java.util.List;
+import com.eleks.dto.PaymentsPageResponse;
 
 public interface PaymentService {
 
     void createPayment(PaymentRequestDto paymentRequestDto, Long groupId);
 
-    List<PaymentResponseDto> retrievePayments(Long groupId);
+    PaymentsPageResponse retrievePayments(Long groupId, String cursor, Integer limit);
 
     PaymentResponseDto retrievePayment(Long groupId, Long paymentId);
 
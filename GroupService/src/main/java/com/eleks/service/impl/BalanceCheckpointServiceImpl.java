@@ -0,0 +1,160 @@
+package com.eleks.service.impl;
+
+import com.eleks.entity.BalanceCheckpointEntity;
+import com.eleks.entity.CheckpointDebtEntity;
+import com.eleks.entity.GroupEntity;
+import com.eleks.entity.PaymentEntity;
+import com.eleks.entity.UserEntity;
+import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.repository.BalanceCheckpointRepository;
+import com.eleks.repository.GroupRepository;
+import com.eleks.repository.PaymentRepository;
+import com.eleks.service.BalanceCheckpointService;
+import com.eleks.util.BalanceFoldUtil;
+import com.eleks.util.BalanceKernel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class BalanceCheckpointServiceImpl implements BalanceCheckpointService {
+
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    private GroupRepository groupRepository;
+
+    private PaymentRepository paymentRepository;
+
+    private BalanceFoldUtil balanceFoldUtil;
+
+    private EntityManager entityManager;
+
+    @Autowired
+    public BalanceCheckpointServiceImpl(BalanceCheckpointRepository balanceCheckpointRepository, GroupRepository groupRepository,
+                                        PaymentRepository paymentRepository, BalanceFoldUtil balanceFoldUtil, EntityManager entityManager) {
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.groupRepository = groupRepository;
+        this.paymentRepository = paymentRepository;
+        this.balanceFoldUtil = balanceFoldUtil;
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceKernel retrieveBalanceKernel(Long groupId, List<Long> groupMembersIds) {
+        Optional<BalanceCheckpointEntity> balanceCheckpointEntity = balanceCheckpointRepository.findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc(groupId);
+
+        try (Stream<PaymentEntity> tailPaymentEntities = streamTail(groupId, balanceCheckpointEntity)) {
+            return foldTail(balanceCheckpointEntity, groupMembersIds, tailPaymentEntities);
+        }
+    }
+
+    //payments of group are created under group lock, so their timestamps grow together with sequence numbers
+    @Transactional(readOnly = true)
+    public BalanceKernel retrieveBalanceKernel(Long groupId, List<Long> groupMembersIds, LocalDateTime asOf) {
+        Optional<BalanceCheckpointEntity> balanceCheckpointEntity = balanceCheckpointRepository
+                .findFirstByGroupIdAndLastPaymentTimeStampLessThanEqualOrderByLastPaymentSequenceNumberDesc(groupId, asOf);
+
+        try (Stream<PaymentEntity> tailPaymentEntities = balanceCheckpointEntity
+                .map(checkpointEntity -> paymentRepository.streamByGroupIdAndSequenceNumberGreaterThanAndTimeStampBetween(groupId,
+                        checkpointEntity.getLastPaymentSequenceNumber(), checkpointEntity.getLastPaymentTimeStamp(), asOf))
+                .orElseGet(() -> paymentRepository.streamByGroupIdAndTimeStampLessThanEqual(groupId, asOf))) {
+            return foldTail(balanceCheckpointEntity, groupMembersIds, tailPaymentEntities);
+        }
+    }
+
+    @Override
+    public List<Long> retrieveGroupIdsDueForCheckpoint(Long paymentsCount) {
+        return groupRepository.findIdsByPaymentsSinceCheckpointGreaterThanEqual(paymentsCount);
+    }
+
+    @Transactional
+    public void writeCheckpoint(Long groupId) {
+        GroupEntity groupEntity = groupRepository.findByIdForUpdate(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group entity with id " + groupId + " doesn't exist"));
+
+        List<Long> groupMembersIds = groupEntity.getMembers().stream()
+                .map(UserEntity::getUserId)
+                .collect(Collectors.toList());
+
+        Optional<BalanceCheckpointEntity> balanceCheckpointEntity = balanceCheckpointRepository.findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc(groupId);
+        AtomicReference<PaymentEntity> lastPaymentEntity = new AtomicReference<>();
+
+        BalanceKernel balanceKernel;
+
+        try (Stream<PaymentEntity> tailPaymentEntities = streamTail(groupId, balanceCheckpointEntity)) {
+            balanceKernel = foldTail(balanceCheckpointEntity, groupMembersIds, tailPaymentEntities
+                    .peek(paymentEntity -> lastPaymentEntity.accumulateAndGet(paymentEntity, (last, current) ->
+                            Objects.isNull(last) || current.getSequenceNumber() > last.getSequenceNumber() ? current : last)));
+        }
+
+        groupEntity.setPaymentsSinceCheckpoint(0L);
+
+        if (Objects.isNull(lastPaymentEntity.get())) {
+            return;
+        }
+
+        List<CheckpointDebtEntity> checkpointDebtEntities = new ArrayList<>();
+
+        balanceKernel.debts().forEach((creditorId, debtorsAmounts) -> debtorsAmounts.forEach((debtorId, amount) ->
+                checkpointDebtEntities.add(CheckpointDebtEntity.builder()
+                        .creditorId(creditorId)
+                        .debtorId(debtorId)
+                        .amount(amount)
+                        .build())));
+
+        balanceCheckpointRepository.save(BalanceCheckpointEntity.builder()
+                .groupId(groupId)
+                .lastPaymentSequenceNumber(lastPaymentEntity.get().getSequenceNumber())
+                .lastPaymentTimeStamp(lastPaymentEntity.get().getTimeStamp())
+                .debts(checkpointDebtEntities)
+                .build());
+    }
+
+    //checkpoint includes every payment with sequence number up to its last payment one, so it is stale once any of them is deleted;
+    //payments since checkpoint are counted again as tail of group now starts at its latest remaining checkpoint
+    @Transactional
+    public void invalidateCheckpoints(Long groupId, Long paymentSequenceNumber) {
+        balanceCheckpointRepository.deleteDebtsByGroupIdAndLastPaymentSequenceNumberFrom(groupId, paymentSequenceNumber);
+        balanceCheckpointRepository.deleteByGroupIdAndLastPaymentSequenceNumberFrom(groupId, paymentSequenceNumber);
+
+        GroupEntity groupEntity = groupRepository.findOne(groupId);
+
+        if (Objects.nonNull(groupEntity)) {
+            groupEntity.setPaymentsSinceCheckpoint(paymentRepository.countByGroupIdAndSequenceNumberGreaterThan(groupId,
+                    balanceCheckpointRepository.findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc(groupId)
+                            .map(BalanceCheckpointEntity::getLastPaymentSequenceNumber)
+                            .orElse(0L)));
+        }
+    }
+
+    @Transactional
+    public void deleteCheckpoints(Long groupId) {
+        invalidateCheckpoints(groupId, 0L);
+    }
+
+    private Stream<PaymentEntity> streamTail(Long groupId, Optional<BalanceCheckpointEntity> balanceCheckpointEntity) {
+        return paymentRepository.streamByGroupIdAndSequenceNumberGreaterThan(groupId,
+                balanceCheckpointEntity.map(BalanceCheckpointEntity::getLastPaymentSequenceNumber).orElse(0L));
+    }
+
+    //every payment is detached right after it is read, so persistence context doesn't grow with history length
+    private BalanceKernel foldTail(Optional<BalanceCheckpointEntity> balanceCheckpointEntity, List<Long> groupMembersIds,
+                                   Stream<PaymentEntity> tailPaymentEntities) {
+        BalanceKernel balanceKernel = balanceFoldUtil.foldWithDebts(groupMembersIds, tailPaymentEntities.peek(entityManager::detach));
+
+        balanceCheckpointEntity.ifPresent(checkpointEntity -> checkpointEntity.getDebts().forEach(checkpointDebtEntity ->
+                balanceKernel.addDebt(checkpointDebtEntity.getCreditorId(), checkpointDebtEntity.getDebtorId(), checkpointDebtEntity.getAmount())));
+
+        return balanceKernel;
+    }
+}
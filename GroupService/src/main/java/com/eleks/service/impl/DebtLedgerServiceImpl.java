@@ -0,0 +1,178 @@
+package com.eleks.service.impl;
+
+import com.eleks.entity.DebtEntity;
+import com.eleks.entity.GroupEntity;
+import com.eleks.entity.PaymentEntity;
+import com.eleks.entity.UserEntity;
+import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.repository.DebtRepository;
+import com.eleks.repository.GroupRepository;
+import com.eleks.service.BalanceCheckpointService;
+import com.eleks.service.DebtLedgerService;
+import com.eleks.util.BalanceKernel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class DebtLedgerServiceImpl implements DebtLedgerService {
+
+    private DebtRepository debtRepository;
+
+    private GroupRepository groupRepository;
+
+    private BalanceCheckpointService balanceCheckpointService;
+
+    @Autowired
+    public DebtLedgerServiceImpl(DebtRepository debtRepository, GroupRepository groupRepository,
+                                 BalanceCheckpointService balanceCheckpointService) {
+        this.debtRepository = debtRepository;
+        this.groupRepository = groupRepository;
+        this.balanceCheckpointService = balanceCheckpointService;
+    }
+
+    @Transactional
+    public void registerPayment(PaymentEntity paymentEntity, List<Long> groupMembersIds) {
+        applyPayments(Collections.singletonList(paymentEntity), groupMembersIds, 1);
+    }
+
+    //debts of all payments are summed up first, so ledger rows are read and written once per call instead of once per payment
+    @Transactional
+    public void registerPayments(List<PaymentEntity> paymentEntities, List<Long> groupMembersIds) {
+        applyPayments(paymentEntities, groupMembersIds, 1);
+    }
+
+    @Transactional
+    public void unregisterPayment(PaymentEntity paymentEntity, List<Long> groupMembersIds) {
+        applyPayments(Collections.singletonList(paymentEntity), groupMembersIds, -1);
+    }
+
+    //group is locked like in payment writes, so no payment can change ledger while it is rebuilt
+    @Transactional
+    public void rebuildLedger(Long groupId) {
+        GroupEntity groupEntity = groupRepository.findByIdForUpdate(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group entity with id " + groupId + " doesn't exist"));
+
+        List<Long> groupMembersIds = groupEntity.getMembers().stream()
+                .map(UserEntity::getUserId)
+                .collect(Collectors.toList());
+
+        BalanceKernel balanceKernel = balanceCheckpointService.retrieveBalanceKernel(groupId, groupMembersIds);
+
+        debtRepository.deleteByGroupId(groupId);
+
+        List<DebtEntity> debtEntities = new ArrayList<>();
+
+        balanceKernel.debts().forEach((creditorId, debtorsAmounts) -> debtorsAmounts.forEach((debtorId, amount) ->
+                debtEntities.add(DebtEntity.builder()
+                        .groupId(groupId)
+                        .creditorId(creditorId)
+                        .debtorId(debtorId)
+                        .amount(amount)
+                        .build())));
+
+        debtRepository.save(debtEntities);
+    }
+
+    @Transactional
+    public void deleteLedger(Long groupId) {
+        debtRepository.deleteByGroupId(groupId);
+    }
+
+    @Override
+    public Map<Long, BigDecimal> retrieveMemberBalances(Long groupId, Long userId) {
+        Map<Long, Long> memberBalances = new HashMap<>();
+
+        //positive balance means that counterpart owes to user, negative - that user owes to counterpart
+        debtRepository.findByGroupIdAndParticipantId(groupId, userId).forEach(debtEntity -> {
+            if (debtEntity.getCreditorId().equals(userId)) {
+                memberBalances.merge(debtEntity.getDebtorId(), debtEntity.getAmount(), Long::sum);
+            } else {
+                memberBalances.merge(debtEntity.getCreditorId(), -debtEntity.getAmount(), Long::sum);
+            }
+        });
+
+        return toBigDecimals(memberBalances);
+    }
+
+    @Override
+    public Map<Long, BigDecimal> retrieveNetBalances(Long groupId) {
+        Map<Long, Long> netBalances = new HashMap<>();
+
+        debtRepository.sumAmountsByCreditor(groupId)
+                .forEach(memberAmount -> netBalances.merge(memberAmount.getUserId(), memberAmount.getAmount(), Long::sum));
+        debtRepository.sumAmountsByDebtor(groupId)
+                .forEach(memberAmount -> netBalances.merge(memberAmount.getUserId(), -memberAmount.getAmount(), Long::sum));
+
+        return toBigDecimals(netBalances);
+    }
+
+    @Override
+    public Map<Long, Map<Long, BigDecimal>> retrieveAllMemberBalances(Long groupId) {
+        Map<Long, Map<Long, Long>> allMemberBalances = new HashMap<>();
+
+        debtRepository.findByGroupId(groupId).forEach(debtEntity -> {
+            allMemberBalances.computeIfAbsent(debtEntity.getCreditorId(), key -> new HashMap<>())
+                    .merge(debtEntity.getDebtorId(), debtEntity.getAmount(), Long::sum);
+            allMemberBalances.computeIfAbsent(debtEntity.getDebtorId(), key -> new HashMap<>())
+                    .merge(debtEntity.getCreditorId(), -debtEntity.getAmount(), Long::sum);
+        });
+
+        Map<Long, Map<Long, BigDecimal>> allMemberBalancesAmounts = new HashMap<>();
+
+        allMemberBalances.forEach((userId, memberBalances) -> {
+            memberBalances.values().removeIf(amount -> amount == 0);
+            allMemberBalancesAmounts.put(userId, toBigDecimals(memberBalances));
+        });
+
+        return allMemberBalancesAmounts;
+    }
+
+    private void applyPayments(List<PaymentEntity> paymentEntities, List<Long> groupMembersIds, long sign) {
+        Map<Long, Map<Long, Long>> paymentDebts = new HashMap<>();
+
+        paymentEntities.forEach(paymentEntity -> BalanceKernel.splitPayment(paymentEntity, groupMembersIds)
+                .forEach((creditorId, debtorsShares) -> debtorsShares.forEach((debtorId, share) ->
+                        paymentDebts.computeIfAbsent(creditorId, key -> new HashMap<>()).merge(debtorId, share, Long::sum))));
+
+        if (paymentDebts.isEmpty()) {
+            return;
+        }
+
+        Long groupId = paymentEntities.get(0).getGroupId();
+        Map<Long, Map<Long, DebtEntity>> debtEntities = new HashMap<>();
+
+        debtRepository.findByGroupIdAndCreditorIdIn(groupId, paymentDebts.keySet())
+                .forEach(debtEntity -> debtEntities.computeIfAbsent(debtEntity.getCreditorId(), key -> new HashMap<>())
+                        .put(debtEntity.getDebtorId(), debtEntity));
+
+        List<DebtEntity> changedDebtEntities = new ArrayList<>();
+
+        paymentDebts.forEach((creditorId, debtorsShares) -> debtorsShares.forEach((debtorId, share) -> {
+            DebtEntity debtEntity = debtEntities.computeIfAbsent(creditorId, key -> new HashMap<>())
+                    .computeIfAbsent(debtorId, key -> DebtEntity.builder()
+                            .groupId(groupId)
+                            .creditorId(creditorId)
+                            .debtorId(debtorId)
+                            .amount(0L)
+                            .build());
+
+            debtEntity.setAmount(debtEntity.getAmount() + share * sign);
+            changedDebtEntities.add(debtEntity);
+        }));
+
+        debtRepository.save(changedDebtEntities);
+    }
+
+    private Map<Long, BigDecimal> toBigDecimals(Map<Long, Long> minorUnits) {
+        Map<Long, BigDecimal> amounts = new HashMap<>();
+
+        minorUnits.forEach((userId, amount) -> amounts.put(userId, BalanceKernel.toBigDecimal(amount)));
+
+        return amounts;
+    }
+}
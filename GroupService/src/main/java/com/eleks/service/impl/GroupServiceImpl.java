@@ -3,45 +3,68 @@ package com.eleks.service.impl;
 import com.eleks.client.UserClient;
 import com.eleks.dto.*;
 import com.eleks.entity.GroupEntity;
-import com.eleks.entity.PaymentEntity;
+import com.eleks.entity.UserEntity;
 import com.eleks.exception.InvalidRequestException;
 import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.exception.UserServiceException;
 import com.eleks.mapper.GroupMapper;
 import com.eleks.repository.GroupRepository;
+import com.eleks.repository.PaymentRepository;
+import com.eleks.service.BalanceCheckpointService;
+import com.eleks.service.DebtLedgerService;
 import com.eleks.service.GroupService;
+import com.eleks.util.BalanceKernel;
+import com.eleks.util.FutureUtil;
+import com.eleks.util.SettlementCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
-import static java.math.RoundingMode.UP;
-
 @Service
 public class GroupServiceImpl implements GroupService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(GroupServiceImpl.class);
+
     private GroupRepository groupRepository;
 
+    private PaymentRepository paymentRepository;
+
     private GroupMapper groupMapper;
 
     private UserClient userClient;
 
+    private DebtLedgerService debtLedgerService;
+
+    private BalanceCheckpointService balanceCheckpointService;
+
     @Autowired
-    public GroupServiceImpl(GroupRepository groupRepository, GroupMapper groupMapper, UserClient userClient) {
+    public GroupServiceImpl(GroupRepository groupRepository, PaymentRepository paymentRepository, GroupMapper groupMapper, UserClient userClient,
+                            DebtLedgerService debtLedgerService, BalanceCheckpointService balanceCheckpointService) {
         this.groupRepository = groupRepository;
+        this.paymentRepository = paymentRepository;
         this.groupMapper = groupMapper;
         this.userClient = userClient;
+        this.debtLedgerService = debtLedgerService;
+        this.balanceCheckpointService = balanceCheckpointService;
     }
 
     @Transactional
     public void createGroup(GroupRequestDto groupRequestDto) {
+        CompletableFuture<Boolean> membersValidation = userClient.areUserIdsValidAsync(new UsersBulkRequestDto(groupRequestDto.getMembers()));
+
         if (groupRepository.findByGroupName(groupRequestDto.getGroupName()).isPresent()) {
             throw new InvalidRequestException("Group name should be unique");
         }
 
-        if (userClient.areUserIdsValid(new UsersBulkRequestDto(groupRequestDto.getMembers()))) {
+        if (FutureUtil.join(membersValidation)) {
             groupRepository.save(groupMapper.convertToEntity(groupRequestDto));
         } else {
             throw new InvalidRequestException("Members ids " + groupRequestDto.getMembers() + " are not valid");
@@ -50,13 +73,15 @@ public class GroupServiceImpl implements GroupService {
 
     @Override
     public GroupResponseDto retrieveGroup(Long groupId) {
-        return groupMapper.convertToDto(groupRepository.findById(groupId)
+        return groupMapper.convertToDto(groupRepository.findWithMembersById(groupId)
                 .orElseThrow(() -> new ResourceNotFoundException("Group entity with id " + groupId + " doesn't exist")));
     }
 
     @Transactional
     public void deleteGroup(Long groupId) {
-        if (groupRepository.findById(groupId).isPresent()) {
+        if (groupRepository.exists(groupId)) {
+            debtLedgerService.deleteLedger(groupId);
+            balanceCheckpointService.deleteCheckpoints(groupId);
             groupRepository.delete(groupId);
         } else {
             throw new ResourceNotFoundException("Group entity with id " + groupId + " doesn't exist");
@@ -65,18 +90,25 @@ public class GroupServiceImpl implements GroupService {
 
     @Transactional
     public void updateGroup(Long groupId, GroupRequestDto groupRequestDto) {
-        groupRepository.findById(groupId).orElseThrow(() -> new ResourceNotFoundException("Group entity with id " + groupId + " doesn't exist"));
+        CompletableFuture<Boolean> membersValidation = userClient.areUserIdsValidAsync(new UsersBulkRequestDto(groupRequestDto.getMembers()));
 
-        if (userClient.areUserIdsValid(new UsersBulkRequestDto(groupRequestDto.getMembers()))) {
+        //group is locked before anything else is read, so ledger rebuild below sees every payment committed before update
+        if (!groupRepository.findByIdForUpdate(groupId).isPresent()) {
+            throw new ResourceNotFoundException("Group entity with id " + groupId + " doesn't exist");
+        }
+
+        if (FutureUtil.join(membersValidation)) {
             groupRepository.save(groupMapper.convertToEntity(groupId, groupRequestDto));
+            balanceCheckpointService.deleteCheckpoints(groupId);
+            debtLedgerService.rebuildLedger(groupId);
         } else {
             throw new InvalidRequestException("Members ids " + groupRequestDto.getMembers() + " are not valid");
         }
     }
 
     @Override
-    public List<UserStatusResponse> retrieveGroupMemberOwings(Long groupId, Long userId) {
-        GroupEntity groupEntity = groupRepository.findById(groupId)
+    public List<UserStatusResponse> retrieveGroupMemberOwings(Long groupId, Long userId, LocalDateTime asOf) {
+        GroupEntity groupEntity = groupRepository.findWithMembersById(groupId)
                 .orElseThrow(() -> new ResourceNotFoundException("Group entity with id " + groupId + " doesn't exist"));
 
         groupEntity.getMembers().stream()
@@ -84,54 +116,103 @@ public class GroupServiceImpl implements GroupService {
                 .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("User with " + userId + " isn't member of group"));
 
-        Map<Long, UserStatusResponse> userStatusResponseMap = new HashMap<>();
+        List<Long> groupMembersIds = groupEntity.getMembers().stream()
+                .map(UserEntity::getUserId)
+                .collect(Collectors.toList());
+
+        //user names are resolved while balances are loaded and folded
+        CompletableFuture<List<UserResponseDto>> groupMembers = userClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(groupMembersIds));
+
+        Map<Long, BigDecimal> memberBalances = Objects.isNull(asOf) ?
+                debtLedgerService.retrieveMemberBalances(groupId, userId) :
+                balanceCheckpointService.retrieveBalanceKernel(groupId, groupMembersIds, asOf).memberBalances(userId);
+
+        Map<Long, UserStatusResponse> userStatusResponseMap = new LinkedHashMap<>();
 
         groupEntity.getMembers()
                 .forEach(groupMember -> userStatusResponseMap.put(groupMember.getUserId(),
                         UserStatusResponse.builder()
                                 .userId(groupMember.getUserId())
-                                .value(new BigDecimal(0))
+                                .value(memberBalances.getOrDefault(groupMember.getUserId(), BigDecimal.ZERO))
                                 .currency(groupEntity.getCurrency())
                                 .build()));
 
-        groupEntity.getPayments()
-                .forEach(paymentEntity -> calculateOwings(paymentEntity, userStatusResponseMap, userId));
-
-        addUserNamesToUserStatusResponses(userStatusResponseMap);
+        addUserNamesToUserStatusResponses(userStatusResponseMap, retrieveGroupMembersIfAvailable(groupMembers));
 
         return userStatusResponseMap.values().stream()
                 .filter(userStatusResponse -> !userStatusResponse.getUserId().equals(userId))
                 .collect(Collectors.toList());
     }
 
-    private void calculateOwings(PaymentEntity paymentEntity, Map<Long, UserStatusResponse> userStatusResponseMap, Long userId) {
-        Set<Long> groupMembersIds = userStatusResponseMap.keySet();
+    @Override
+    public List<SettlementTransferResponse> retrieveGroupSettlement(Long groupId) {
+        GroupEntity groupEntity = groupRepository.findById(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group entity with id " + groupId + " doesn't exist"));
+
+        return SettlementCalculator.calculateTransfers(debtLedgerService.retrieveNetBalances(groupId), groupEntity.getCurrency());
+    }
+
+    @Override
+    public GroupBalancesResponse retrieveGroupBalances(Long groupId) {
+        GroupEntity groupEntity = groupRepository.findWithMembersById(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group entity with id " + groupId + " doesn't exist"));
 
-        List<Long> owersIds = groupMembersIds.stream()
-                .filter(groupMemberId -> !paymentEntity.getCoPayers().contains(groupMemberId))
+        List<Long> groupMembersIds = groupEntity.getMembers().stream()
+                .map(UserEntity::getUserId)
                 .collect(Collectors.toList());
 
-        if (!owersIds.isEmpty()) {
-            double owingSum = (paymentEntity.getPrice() / groupMembersIds.size()) / paymentEntity.getCoPayers().size();
-
-            //when user id present in co payers list then add owing sum to your owers (+) or vise versa (-) (to whom you owe)
-            if (paymentEntity.getCoPayers().contains(userId)) {
-                owersIds.forEach(owerId -> {
-                    UserStatusResponse userStatusResponseOwer = userStatusResponseMap.get(owerId);
-                    userStatusResponseOwer.setValue(userStatusResponseOwer.getValue().add(new BigDecimal(owingSum)).setScale(3, UP));
-                });
-            } else {
-                paymentEntity.getCoPayers().forEach(coPayer -> {
-                    UserStatusResponse userStatusResponseCoPayer = userStatusResponseMap.get(coPayer);
-                    userStatusResponseCoPayer.setValue(userStatusResponseCoPayer.getValue().subtract(new BigDecimal(owingSum)).setScale(3, UP));
-                });
-            }
-        }
+        CompletableFuture<List<UserResponseDto>> groupMembers = userClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(groupMembersIds));
+
+        Map<Long, Map<Long, BigDecimal>> allMemberBalances = debtLedgerService.retrieveAllMemberBalances(groupId);
+
+        Map<Long, Long> paidTotals = paymentRepository.sumPaidSharesByCoPayer(groupId).stream()
+                .collect(Collectors.toMap(row -> ((Number) row[0]).longValue(), row -> ((Number) row[1]).longValue()));
+
+        Map<Long, String> userNames = retrieveGroupMembersIfAvailable(groupMembers).stream()
+                .collect(Collectors.toMap(UserResponseDto::getId, UserResponseDto::getUserName, (first, second) -> first));
+
+        List<MemberBalanceResponse> memberBalanceResponses = groupMembersIds.stream()
+                .map(groupMemberId -> {
+                    Map<Long, BigDecimal> memberBalances = allMemberBalances.getOrDefault(groupMemberId, Collections.emptyMap());
+
+                    return MemberBalanceResponse.builder()
+                            .userId(groupMemberId)
+                            .userName(userNames.get(groupMemberId))
+                            .value(memberBalances.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add))
+                            .paid(BalanceKernel.toBigDecimal(paidTotals.getOrDefault(groupMemberId, 0L)))
+                            .owings(groupMembersIds.stream()
+                                    .filter(memberBalances::containsKey)
+                                    .map(counterpartId -> UserStatusResponse.builder()
+                                            .userId(counterpartId)
+                                            .userName(userNames.get(counterpartId))
+                                            .currency(groupEntity.getCurrency())
+                                            .value(memberBalances.get(counterpartId))
+                                            .build())
+                                    .collect(Collectors.toList()))
+                            .build();
+                })
+                .collect(Collectors.toList());
+
+        return GroupBalancesResponse.builder()
+                .groupId(groupId)
+                .currency(groupEntity.getCurrency())
+                .members(memberBalanceResponses)
+                .build();
     }
 
-    private void addUserNamesToUserStatusResponses(Map<Long, UserStatusResponse> userStatusResponseMap) {
-        userClient.retrieveUsersByIds(new UsersBulkRequestDto(new ArrayList<>(userStatusResponseMap.keySet()))).stream()
+    private void addUserNamesToUserStatusResponses(Map<Long, UserStatusResponse> userStatusResponseMap, List<UserResponseDto> userResponseDtos) {
+        userResponseDtos.stream()
                 .filter(userResponseDto -> Objects.nonNull(userStatusResponseMap.get(userResponseDto.getId())))
                 .forEach(userResponseDto -> userStatusResponseMap.get(userResponseDto.getId()).setUserName(userResponseDto.getUserName()));
     }
+
+    //balances are still served, only without user names, while user service is unavailable
+    private List<UserResponseDto> retrieveGroupMembersIfAvailable(CompletableFuture<List<UserResponseDto>> groupMembers) {
+        try {
+            return FutureUtil.join(groupMembers);
+        } catch (UserServiceException e) {
+            LOGGER.warn("User names are not available: {}", e.getMessage());
+            return Collections.emptyList();
+        }
+    }
 }
@@ -0,0 +1,231 @@
+package com.eleks.service.impl;
+
+import com.eleks.dto.PaymentImportError;
+import com.eleks.dto.PaymentRequestDto;
+import com.eleks.dto.PaymentsImportResponse;
+import com.eleks.dto.UserPrincipal;
+import com.eleks.entity.GroupEntity;
+import com.eleks.entity.PaymentEntity;
+import com.eleks.entity.UserEntity;
+import com.eleks.exception.InvalidRequestException;
+import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.mapper.PaymentMapper;
+import com.eleks.repository.GroupRepository;
+import com.eleks.repository.PaymentRepository;
+import com.eleks.security.AuthenticationPrincipalSecurityUtil;
+import com.eleks.service.DebtLedgerService;
+import com.eleks.service.PaymentImportService;
+import com.eleks.util.PaymentImportReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Service
+public class PaymentImportServiceImpl implements PaymentImportService {
+
+    private GroupRepository groupRepository;
+
+    private PaymentRepository paymentRepository;
+
+    private AuthenticationPrincipalSecurityUtil authenticationSecurityUtil;
+
+    private DebtLedgerService debtLedgerService;
+
+    private Validator validator;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    private int batchSize;
+
+    private int maxErrors;
+
+    @Autowired
+    public PaymentImportServiceImpl(GroupRepository groupRepository, PaymentRepository paymentRepository,
+                                    AuthenticationPrincipalSecurityUtil authenticationSecurityUtil, DebtLedgerService debtLedgerService,
+                                    Validator validator, EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                    @Value("${payments.import.batchSize}") int batchSize,
+                                    @Value("${payments.import.maxErrors}") int maxErrors) {
+        this.groupRepository = groupRepository;
+        this.paymentRepository = paymentRepository;
+        this.authenticationSecurityUtil = authenticationSecurityUtil;
+        this.debtLedgerService = debtLedgerService;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+    }
+
+    //every batch is written in its own transaction which holds group lock only while batch is written, so slow upload
+    //doesn't block other writes of group and batches written before body fails to be read are kept;
+    //invalid lines are skipped and reported, persistence context is flushed and cleared after every batch
+    @Override
+    public PaymentsImportResponse importPayments(Long groupId, PaymentImportReader paymentImportReader) {
+        Set<Long> groupMembersSet = new HashSet<>(transactionTemplate.execute(status -> retrieveGroupMembers(lockGroup(groupId))));
+
+        UserPrincipal userPrincipal = authenticationSecurityUtil.retrievePrincipal();
+
+        if (Objects.isNull(userPrincipal)) {
+            throw new InvalidRequestException("Authentication principal can not be null");
+        }
+
+        ImportProgress importProgress = new ImportProgress(maxErrors);
+        List<PaymentEntity> paymentEntities = new ArrayList<>(batchSize);
+        List<Integer> lineNumbers = new ArrayList<>(batchSize);
+
+        try {
+            while (true) {
+                PaymentRequestDto paymentRequestDto;
+
+                try {
+                    paymentRequestDto = paymentImportReader.read();
+
+                    if (Objects.isNull(paymentRequestDto)) {
+                        break;
+                    }
+
+                    validate(paymentRequestDto, groupMembersSet, groupId);
+                } catch (InvalidRequestException e) {
+                    importProgress.fail(paymentImportReader.getLineNumber(), e.getMessage());
+                    continue;
+                }
+
+                paymentEntities.add(PaymentMapper.convertToEntity(paymentRequestDto, groupId, userPrincipal.getUserId()));
+                lineNumbers.add(paymentImportReader.getLineNumber());
+
+                if (paymentEntities.size() == batchSize) {
+                    writeBatch(groupId, paymentEntities, lineNumbers, importProgress);
+                }
+            }
+        } catch (IOException e) {
+            //line which couldn't be read is the one after the last read line, import can be resumed from it
+            importProgress.interrupt(paymentImportReader.getLineNumber() + 1, "Payments import can not be read: " + e.getMessage());
+        }
+
+        writeBatch(groupId, paymentEntities, lineNumbers, importProgress);
+
+        return PaymentsImportResponse.builder()
+                .importedCount(importProgress.importedCount)
+                .failedCount(importProgress.failedCount)
+                .errors(importProgress.errors)
+                .completed(importProgress.completed)
+                .build();
+    }
+
+    private GroupEntity lockGroup(Long groupId) {
+        return groupRepository.findByIdForUpdate(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group with " + groupId + " group id doesn't exist"));
+    }
+
+    private List<Long> retrieveGroupMembers(GroupEntity groupEntity) {
+        return groupEntity.getMembers().stream()
+                .map(UserEntity::getUserId)
+                .collect(Collectors.toList());
+    }
+
+    private void validate(PaymentRequestDto paymentRequestDto, Set<Long> groupMembersSet, Long groupId) {
+        Set<ConstraintViolation<PaymentRequestDto>> violations = validator.validate(paymentRequestDto);
+
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException("Validation failed: " + violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")) + ".");
+        }
+
+        if (!groupMembersSet.containsAll(paymentRequestDto.getCoPayers())) {
+            throw new InvalidRequestException("Co-payers ids are not members of group with id " + groupId);
+        }
+    }
+
+    //members could leave group since lines of batch were read, so co-payers are checked once more under group lock
+    private void writeBatch(Long groupId, List<PaymentEntity> paymentEntities, List<Integer> lineNumbers, ImportProgress importProgress) {
+        if (paymentEntities.isEmpty()) {
+            return;
+        }
+
+        int writtenCount = transactionTemplate.execute(status -> {
+            GroupEntity groupEntity = lockGroup(groupId);
+            List<Long> groupMembers = retrieveGroupMembers(groupEntity);
+            Set<Long> groupMembersSet = new HashSet<>(groupMembers);
+            List<PaymentEntity> memberPaymentEntities = new ArrayList<>(paymentEntities.size());
+
+            for (int index = 0; index < paymentEntities.size(); index++) {
+                if (groupMembersSet.containsAll(paymentEntities.get(index).getCoPayers())) {
+                    memberPaymentEntities.add(paymentEntities.get(index));
+                } else {
+                    importProgress.fail(lineNumbers.get(index), "Co-payers ids are not members of group with id " + groupId);
+                }
+            }
+
+            if (memberPaymentEntities.isEmpty()) {
+                return 0;
+            }
+
+            //timestamps are taken together with sequence numbers under group lock, so they grow together as for created payments
+            long sequenceNumber = paymentRepository.findMaxSequenceNumberByGroupId(groupId);
+            LocalDateTime timeStamp = LocalDateTime.now();
+
+            for (PaymentEntity paymentEntity : memberPaymentEntities) {
+                paymentEntity.setSequenceNumber(++sequenceNumber);
+                paymentEntity.setTimeStamp(timeStamp);
+            }
+
+            paymentRepository.save(memberPaymentEntities);
+            groupEntity.setPaymentsSinceCheckpoint(groupEntity.getPaymentsSinceCheckpoint() + memberPaymentEntities.size());
+            debtLedgerService.registerPayments(memberPaymentEntities, groupMembers);
+
+            entityManager.flush();
+            entityManager.clear();
+
+            return memberPaymentEntities.size();
+        });
+
+        importProgress.importedCount += writtenCount;
+        paymentEntities.clear();
+        lineNumbers.clear();
+    }
+
+    private static class ImportProgress {
+
+        private int maxErrors;
+
+        private int importedCount;
+
+        private int failedCount;
+
+        private List<PaymentImportError> errors = new ArrayList<>();
+
+        private boolean completed = true;
+
+        private ImportProgress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(int lineNumber, String message) {
+            failedCount++;
+
+            if (errors.size() < maxErrors) {
+                errors.add(new PaymentImportError(lineNumber, message));
+            }
+        }
+
+        //read failure is always reported, so client knows from which line import should be resumed
+        private void interrupt(int lineNumber, String message) {
+            completed = false;
+            errors.add(new PaymentImportError(lineNumber, message));
+        }
+    }
+}
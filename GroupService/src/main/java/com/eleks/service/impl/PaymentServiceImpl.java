@@ -2,6 +2,7 @@ package com.eleks.service.impl;
 
 import com.eleks.dto.PaymentRequestDto;
 import com.eleks.dto.PaymentResponseDto;
+import com.eleks.dto.PaymentsPageResponse;
 import com.eleks.dto.UserPrincipal;
 import com.eleks.entity.GroupEntity;
 import com.eleks.entity.PaymentEntity;
@@ -12,14 +13,19 @@ import com.eleks.mapper.PaymentMapper;
 import com.eleks.repository.GroupRepository;
 import com.eleks.repository.PaymentRepository;
 import com.eleks.security.AuthenticationPrincipalSecurityUtil;
+import com.eleks.service.BalanceCheckpointService;
+import com.eleks.service.DebtLedgerService;
 import com.eleks.service.PaymentService;
+import com.eleks.util.PaymentCursorUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,22 +34,32 @@ public class PaymentServiceImpl implements PaymentService {
     // should be removed in 6 iteration
     private static final Long CREATOR_ID = 4L;
 
+    private static final int MAX_PAGE_LIMIT = 500;
+
     private GroupRepository groupRepository;
 
     private PaymentRepository paymentRepository;
 
     private AuthenticationPrincipalSecurityUtil authenticationSecurityUtil;
 
+    private DebtLedgerService debtLedgerService;
+
+    private BalanceCheckpointService balanceCheckpointService;
+
     @Autowired
-    public PaymentServiceImpl(GroupRepository groupRepository, PaymentRepository paymentRepository, AuthenticationPrincipalSecurityUtil authenticationSecurityUtil) {
+    public PaymentServiceImpl(GroupRepository groupRepository, PaymentRepository paymentRepository,
+                              AuthenticationPrincipalSecurityUtil authenticationSecurityUtil, DebtLedgerService debtLedgerService,
+                              BalanceCheckpointService balanceCheckpointService) {
         this.groupRepository = groupRepository;
         this.paymentRepository = paymentRepository;
         this.authenticationSecurityUtil = authenticationSecurityUtil;
+        this.debtLedgerService = debtLedgerService;
+        this.balanceCheckpointService = balanceCheckpointService;
     }
 
     @Transactional
     public void createPayment(PaymentRequestDto paymentRequestDto, Long groupId) {
-        GroupEntity groupEntity = groupRepository.findById(groupId)
+        GroupEntity groupEntity = groupRepository.findByIdForUpdate(groupId)
                 .orElseThrow(() -> new ResourceNotFoundException("Group with " + groupId + " group id doesn't exist"));
 
         List<Long> groupMembers = groupEntity.getMembers().stream()
@@ -58,7 +74,12 @@ public class PaymentServiceImpl implements PaymentService {
                 throw new InvalidRequestException("Authentication principal can not be null");
             }
 
-            paymentRepository.save(PaymentMapper.convertToEntity(paymentRequestDto, groupId, userPrincipal.getUserId()));
+            PaymentEntity paymentEntity = PaymentMapper.convertToEntity(paymentRequestDto, groupId, userPrincipal.getUserId());
+            paymentEntity.setSequenceNumber(paymentRepository.findMaxSequenceNumberByGroupId(groupId) + 1);
+
+            paymentRepository.save(paymentEntity);
+            groupEntity.setPaymentsSinceCheckpoint(groupEntity.getPaymentsSinceCheckpoint() + 1);
+            debtLedgerService.registerPayment(paymentEntity, groupMembers);
 
         } else {
             throw new InvalidRequestException("Co-payers ids are not members of group with id " + groupId);
@@ -66,39 +87,72 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
-    public List<PaymentResponseDto> retrievePayments(Long groupId) {
-        List<PaymentEntity> paymentEntities = paymentRepository.findByGroupId(groupId);
+    public PaymentsPageResponse retrievePayments(Long groupId, String cursor, Integer limit) {
+        if (Objects.isNull(limit) || limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new InvalidRequestException("Limit should be between 1 and " + MAX_PAGE_LIMIT);
+        }
+
+        //one extra payment is fetched only to find out whether next page exists
+        PageRequest pageRequest = new PageRequest(0, limit + 1);
+        List<PaymentEntity> paymentEntities;
+
+        if (Objects.isNull(cursor)) {
+            paymentEntities = paymentRepository.findByGroupIdOrderByTimeStampAscIdAsc(groupId, pageRequest);
+
+            if (paymentEntities.isEmpty()) {
+                throw new ResourceNotFoundException("Payments with group id " + groupId + " doesn't exist");
+            }
+        } else {
+            PaymentCursorUtil.PaymentCursor paymentCursor = PaymentCursorUtil.decode(cursor);
+            paymentEntities = paymentRepository.findByGroupIdAfterKey(groupId, paymentCursor.getTimeStamp(), paymentCursor.getId(), pageRequest);
+        }
 
-        if (paymentEntities.isEmpty()) {
-            throw new ResourceNotFoundException("Payments with group id " + groupId + " doesn't exist");
+        if (paymentEntities.size() <= limit) {
+            return PaymentsPageResponse.builder()
+                    .payments(paymentEntities.isEmpty() ? Collections.emptyList() : PaymentMapper.convertToDto(paymentEntities))
+                    .build();
         }
 
-        return PaymentMapper.convertToDto(paymentEntities);
+        List<PaymentEntity> pagePaymentEntities = paymentEntities.subList(0, limit);
+
+        return PaymentsPageResponse.builder()
+                .payments(PaymentMapper.convertToDto(pagePaymentEntities))
+                .next(PaymentCursorUtil.encode(pagePaymentEntities.get(limit - 1)))
+                .build();
     }
 
     @Override
     public PaymentResponseDto retrievePayment(Long groupId, Long paymentId) {
-        GroupEntity groupEntity = groupRepository.findById(groupId)
-                .orElseThrow(() -> new ResourceNotFoundException("Group with " + groupId + " group id doesn't exist"));
+        Optional<PaymentEntity> paymentEntity = paymentRepository.findByGroupIdAndId(groupId, paymentId);
 
-        PaymentEntity paymentEntity = groupEntity.getPayments().stream()
-                .filter(payment -> payment.getId().equals(paymentId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Payment with " + paymentId + " payment id doesn't exist"));
+        //group existence is checked only to report proper error when payment isn't found
+        if (!paymentEntity.isPresent()) {
+            if (!groupRepository.exists(groupId)) {
+                throw new ResourceNotFoundException("Group with " + groupId + " group id doesn't exist");
+            }
+
+            throw new ResourceNotFoundException("Payment with " + paymentId + " payment id doesn't exist");
+        }
 
-        return PaymentMapper.convertToDto(Collections.singletonList(paymentEntity)).get(0);
+        return PaymentMapper.convertToDto(Collections.singletonList(paymentEntity.get())).get(0);
     }
 
     @Transactional
     public void deletePayment(Long groupId, Long paymentId) {
-        GroupEntity groupEntity = groupRepository.findById(groupId)
+        GroupEntity groupEntity = groupRepository.findByIdForUpdate(groupId)
                 .orElseThrow(() -> new ResourceNotFoundException("Group with " + groupId + " group id doesn't exist"));
 
-        PaymentEntity paymentEntity = groupEntity.getPayments().stream()
-                .filter(payment -> payment.getId().equals(paymentId))
-                .findFirst()
+        //payment is needed to unregister it from ledger, and payments of group are deleted only under group lock,
+        //so it can't disappear before delete below
+        PaymentEntity paymentEntity = paymentRepository.findByGroupIdAndId(groupId, paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment with " + paymentId + " payment id doesn't exist"));
 
-        paymentRepository.delete(paymentEntity);
+        debtLedgerService.unregisterPayment(paymentEntity, groupEntity.getMembers().stream()
+                .map(UserEntity::getUserId)
+                .collect(Collectors.toList()));
+        paymentRepository.deleteCoPayersByGroupIdAndId(groupId, paymentId);
+        paymentRepository.deleteByGroupIdAndId(groupId, paymentId);
+        //checkpoints are invalidated after payment is deleted, so payments since latest remaining checkpoint are counted without it
+        balanceCheckpointService.invalidateCheckpoints(groupId, paymentEntity.getSequenceNumber());
     }
 }
@@ -0,0 +1,82 @@
+package com.eleks.util;
+
+import com.eleks.entity.PaymentEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+
+@Component
+public class BalanceFoldUtil {
+
+    private int parallelThreshold;
+
+    private int chunkSize;
+
+    private int parallelism;
+
+    private ForkJoinPool forkJoinPool;
+
+    @Autowired
+    public BalanceFoldUtil(@Value("${balances.parallelThreshold}") int parallelThreshold,
+                           @Value("${balances.chunkSize}") int chunkSize,
+                           @Value("${balances.parallelism}") int parallelism) {
+        this.parallelThreshold = parallelThreshold;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.forkJoinPool = new ForkJoinPool(this.parallelism);
+    }
+
+    //payments are read on the calling thread chunk by chunk, at most parallelism chunks are folded at once,
+    //so memory depends on chunk size only; partial kernels are merged by plain addition in any order
+    public BalanceKernel foldWithDebts(List<Long> groupMembersIds, Stream<PaymentEntity> paymentEntities) {
+        Iterator<PaymentEntity> paymentEntitiesIterator = paymentEntities.iterator();
+        BalanceKernel balanceKernel = BalanceKernel.withDebts(groupMembersIds);
+        Deque<ForkJoinTask<BalanceKernel>> foldTasks = new ArrayDeque<>();
+        long paymentsCount = 0;
+
+        while (paymentEntitiesIterator.hasNext()) {
+            List<PaymentEntity> chunk = new ArrayList<>();
+
+            while (paymentEntitiesIterator.hasNext() && chunk.size() < chunkSize) {
+                chunk.add(paymentEntitiesIterator.next());
+            }
+
+            paymentsCount += chunk.size();
+
+            if (paymentsCount < parallelThreshold) {
+                chunk.forEach(balanceKernel::fold);
+                continue;
+            }
+
+            if (foldTasks.size() == parallelism) {
+                balanceKernel.merge(foldTasks.poll().join());
+            }
+
+            foldTasks.add(forkJoinPool.submit(() -> {
+                BalanceKernel chunkBalanceKernel = BalanceKernel.withDebts(groupMembersIds);
+                chunk.forEach(chunkBalanceKernel::fold);
+
+                return chunkBalanceKernel;
+            }));
+        }
+
+        foldTasks.forEach(foldTask -> balanceKernel.merge(foldTask.join()));
+
+        return balanceKernel;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        forkJoinPool.shutdown();
+    }
+}
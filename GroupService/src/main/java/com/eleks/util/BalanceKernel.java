@@ -0,0 +1,296 @@
+package com.eleks.util;
+
+import com.eleks.dto.Money;
+import com.eleks.entity.PaymentEntity;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+public class BalanceKernel {
+
+    private final long[] memberIds;
+
+    private final Map<Long, Integer> memberIndexes;
+
+    private final PairAmounts debts;
+
+    private final BitSet coPayersScratch;
+
+    private final int[] coPayerIndexesScratch;
+
+    private BalanceKernel(List<Long> groupMembersIds) {
+        memberIds = groupMembersIds.stream()
+                .mapToLong(Long::longValue)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int membersCount = memberIds.length;
+        memberIndexes = new HashMap<>(membersCount * 2);
+
+        for (int index = 0; index < membersCount; index++) {
+            memberIndexes.put(memberIds[index], index);
+        }
+
+        debts = new PairAmounts(membersCount);
+        coPayersScratch = new BitSet(membersCount);
+        coPayerIndexesScratch = new int[membersCount];
+    }
+
+    public static BalanceKernel withDebts(List<Long> groupMembersIds) {
+        return new BalanceKernel(groupMembersIds);
+    }
+
+    //price is split into membersCount * coPayersCount equal integer slots, remainder minor units go one by one to the slots
+    //starting from the one picked by payment id, so every split is exact and the same payment is always split the same way
+    public static long calculateShare(long price, int membersCount, int coPayersCount, long slot, long seed) {
+        long slotsCount = (long) membersCount * coPayersCount;
+
+        return price / slotsCount + (Math.floorMod(slot - seed, slotsCount) < price % slotsCount ? 1 : 0);
+    }
+
+    //creditor id -> debtor id -> amount in minor units, ids are ordered in the same way as in kernel
+    public static Map<Long, Map<Long, Long>> splitPayment(PaymentEntity paymentEntity, List<Long> groupMembersIds) {
+        List<Long> membersIds = new ArrayList<>(new TreeSet<>(groupMembersIds));
+
+        Set<Long> coPayersIdsSet = new TreeSet<>(paymentEntity.getCoPayers());
+        coPayersIdsSet.retainAll(membersIds);
+        List<Long> coPayersIds = new ArrayList<>(coPayersIdsSet);
+
+        Map<Long, Map<Long, Long>> debts = new LinkedHashMap<>();
+
+        if (coPayersIds.isEmpty() || coPayersIds.size() == membersIds.size()) {
+            return debts;
+        }
+
+        long seed = seedOf(paymentEntity);
+
+        for (int coPayer = 0; coPayer < coPayersIds.size(); coPayer++) {
+            Map<Long, Long> coPayerDebts = new LinkedHashMap<>();
+
+            for (int member = 0; member < membersIds.size(); member++) {
+                if (!coPayersIdsSet.contains(membersIds.get(member))) {
+                    coPayerDebts.put(membersIds.get(member), calculateShare(paymentEntity.getPrice().getMinorUnits(),
+                            membersIds.size(), coPayersIds.size(), (long) member * coPayersIds.size() + coPayer, seed));
+                }
+            }
+
+            debts.put(coPayersIds.get(coPayer), coPayerDebts);
+        }
+
+        return debts;
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, Money.SCALE);
+    }
+
+    public void fold(PaymentEntity paymentEntity) {
+        int membersCount = memberIds.length;
+        int coPayersCount = 0;
+
+        for (Long coPayerId : paymentEntity.getCoPayers()) {
+            Integer coPayerIndex = memberIndexes.get(coPayerId);
+
+            if (Objects.nonNull(coPayerIndex) && !coPayersScratch.get(coPayerIndex)) {
+                coPayersScratch.set(coPayerIndex);
+                coPayerIndexesScratch[coPayersCount++] = coPayerIndex;
+            }
+        }
+
+        if (coPayersCount > 0 && coPayersCount < membersCount) {
+            Arrays.sort(coPayerIndexesScratch, 0, coPayersCount);
+
+            long price = paymentEntity.getPrice().getMinorUnits();
+            long seed = seedOf(paymentEntity);
+
+            for (int ower = coPayersScratch.nextClearBit(0); ower < membersCount; ower = coPayersScratch.nextClearBit(ower + 1)) {
+                for (int coPayer = 0; coPayer < coPayersCount; coPayer++) {
+                    int coPayerIndex = coPayerIndexesScratch[coPayer];
+                    long share = calculateShare(price, membersCount, coPayersCount, (long) ower * coPayersCount + coPayer, seed);
+
+                    debts.add(pairKey(coPayerIndex, ower), share);
+                }
+            }
+        }
+
+        for (int coPayer = 0; coPayer < coPayersCount; coPayer++) {
+            coPayersScratch.clear(coPayerIndexesScratch[coPayer]);
+        }
+    }
+
+    public void addDebt(Long creditorId, Long debtorId, long amount) {
+        Integer creditorIndex = memberIndexes.get(creditorId);
+        Integer debtorIndex = memberIndexes.get(debtorId);
+
+        if (Objects.isNull(creditorIndex) || Objects.isNull(debtorIndex)) {
+            return;
+        }
+
+        debts.add(pairKey(creditorIndex, debtorIndex), amount);
+    }
+
+    public BalanceKernel merge(BalanceKernel balanceKernel) {
+        if (!Arrays.equals(memberIds, balanceKernel.memberIds)) {
+            throw new IllegalArgumentException("Only balance kernels of the same members can be merged");
+        }
+
+        balanceKernel.debts.forEach(debts::add);
+
+        return this;
+    }
+
+    //positive balance means that counterpart owes to user, negative - that user owes to counterpart
+    public Map<Long, BigDecimal> memberBalances(Long userId) {
+        int membersCount = memberIds.length;
+        int userIndex = memberIndexes.get(userId);
+        Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+
+        for (int index = 0; index < membersCount; index++) {
+            if (index != userIndex) {
+                balances.put(memberIds[index], toBigDecimal(debts.get(pairKey(userIndex, index)) - debts.get(pairKey(index, userIndex))));
+            }
+        }
+
+        return balances;
+    }
+
+    //creditor id -> debtor id -> amount in minor units, only non zero debts are present
+    public Map<Long, Map<Long, Long>> debts() {
+        int membersCount = memberIds.length;
+        Map<Long, Map<Long, Long>> nonZeroDebts = new LinkedHashMap<>();
+
+        //pair keys are ordered by creditor first, so sorted keys give the same order as ids in kernel
+        SortedMap<Long, Long> pairAmounts = new TreeMap<>();
+        debts.forEach((pairKey, amount) -> {
+            if (amount != 0) {
+                pairAmounts.put(pairKey, amount);
+            }
+        });
+
+        pairAmounts.forEach((pairKey, amount) -> nonZeroDebts.computeIfAbsent(memberIds[(int) (pairKey / membersCount)], key -> new LinkedHashMap<>())
+                .put(memberIds[(int) (pairKey % membersCount)], amount));
+
+        return nonZeroDebts;
+    }
+
+    private long pairKey(int creditorIndex, int debtorIndex) {
+        return (long) creditorIndex * memberIds.length + debtorIndex;
+    }
+
+    private static long seedOf(PaymentEntity paymentEntity) {
+        return Objects.isNull(paymentEntity.getId()) ? 0 : paymentEntity.getId();
+    }
+
+    //amounts of small groups are kept in dense array indexed by pair key, which is the fastest to fold; for larger groups
+    //open addressing map is used, so only pairs which ever had debt take memory; pair keys are non negative,
+    //so negative key marks free slot of map
+    private static final class PairAmounts {
+
+        private static final long DENSE_PAIRS_LIMIT = 65536;
+
+        private static final long FREE_KEY = -1;
+
+        private long[] dense;
+
+        private long[] keys;
+
+        private long[] amounts;
+
+        private int size;
+
+        private PairAmounts(int membersCount) {
+            if ((long) membersCount * membersCount <= DENSE_PAIRS_LIMIT) {
+                dense = new long[membersCount * membersCount];
+            } else {
+                int capacity = Integer.highestOneBit(membersCount * 2 - 1);
+
+                keys = new long[capacity];
+                amounts = new long[capacity];
+                Arrays.fill(keys, FREE_KEY);
+            }
+        }
+
+        private void add(long key, long amount) {
+            if (Objects.nonNull(dense)) {
+                dense[(int) key] += amount;
+                return;
+            }
+
+            int slot = slotOf(key);
+
+            if (keys[slot] == FREE_KEY) {
+                if ((size + 1) * 2 > keys.length) {
+                    resize();
+                    slot = slotOf(key);
+                }
+
+                keys[slot] = key;
+                size++;
+            }
+
+            amounts[slot] += amount;
+        }
+
+        private long get(long key) {
+            if (Objects.nonNull(dense)) {
+                return dense[(int) key];
+            }
+
+            int slot = slotOf(key);
+
+            return keys[slot] == FREE_KEY ? 0 : amounts[slot];
+        }
+
+        private void forEach(PairAmountConsumer consumer) {
+            if (Objects.nonNull(dense)) {
+                for (int key = 0; key < dense.length; key++) {
+                    if (dense[key] != 0) {
+                        consumer.accept(key, dense[key]);
+                    }
+                }
+
+                return;
+            }
+
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != FREE_KEY) {
+                    consumer.accept(keys[slot], amounts[slot]);
+                }
+            }
+        }
+
+        private int slotOf(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+
+            while (keys[slot] != FREE_KEY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            long[] oldAmounts = amounts;
+
+            keys = new long[oldKeys.length * 2];
+            amounts = new long[oldKeys.length * 2];
+            Arrays.fill(keys, FREE_KEY);
+
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != FREE_KEY) {
+                    int newSlot = slotOf(oldKeys[slot]);
+                    keys[newSlot] = oldKeys[slot];
+                    amounts[newSlot] = oldAmounts[slot];
+                }
+            }
+        }
+    }
+
+    private interface PairAmountConsumer {
+
+        void accept(long key, long amount);
+    }
+}
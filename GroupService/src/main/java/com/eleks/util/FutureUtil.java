@@ -0,0 +1,23 @@
+package com.eleks.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class FutureUtil {
+
+    private FutureUtil() {
+    }
+
+    //runtime exceptions are rethrown unwrapped, so joining caller sees the same exceptions as with synchronous call
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+}
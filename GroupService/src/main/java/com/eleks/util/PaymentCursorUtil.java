@@ -0,0 +1,45 @@
+package com.eleks.util;
+
+import com.eleks.entity.PaymentEntity;
+import com.eleks.exception.InvalidRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public class PaymentCursorUtil {
+
+    private static final String DELIMETER = "|";
+
+    private PaymentCursorUtil() {
+    }
+
+    public static String encode(PaymentEntity paymentEntity) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((paymentEntity.getTimeStamp() + DELIMETER + paymentEntity.getId()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PaymentCursor decode(String cursor) {
+        try {
+            String decodedCursor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int delimeterIndex = decodedCursor.lastIndexOf(DELIMETER);
+
+            return new PaymentCursor(LocalDateTime.parse(decodedCursor.substring(0, delimeterIndex)),
+                    Long.valueOf(decodedCursor.substring(delimeterIndex + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidRequestException("Payments cursor " + cursor + " is not valid");
+        }
+    }
+
+    @AllArgsConstructor
+    @Data
+    public static class PaymentCursor {
+
+        private LocalDateTime timeStamp;
+
+        private Long id;
+    }
+}
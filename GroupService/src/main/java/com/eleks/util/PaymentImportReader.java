@@ -0,0 +1,176 @@
+package com.eleks.util;
+
+import com.eleks.dto.Money;
+import com.eleks.dto.PaymentRequestDto;
+import com.eleks.exception.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//payments are parsed one line at a time, so import body is never buffered as a whole; malformed line is reported
+//by InvalidRequestException and reading can be continued from the next line
+public class PaymentImportReader {
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+
+    private static final String CSV_DELIMETER = ",";
+
+    private static final String CO_PAYERS_DELIMETER = ";";
+
+    private static final List<String> CSV_COLUMNS = Arrays.asList("paymentDescription", "price", "coPayers");
+
+    private BufferedReader reader;
+
+    private Function<String, PaymentRequestDto> lineParser;
+
+    private int lineNumber;
+
+    private PaymentImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    public static PaymentImportReader ndjson(BufferedReader reader, ObjectReader paymentObjectReader) {
+        PaymentImportReader paymentImportReader = new PaymentImportReader(reader);
+        paymentImportReader.lineParser = line -> parseJson(line, paymentObjectReader);
+
+        return paymentImportReader;
+    }
+
+    //csv has to start with header, columns are matched by name so their order doesn't matter
+    public static PaymentImportReader csv(BufferedReader reader) throws IOException {
+        PaymentImportReader paymentImportReader = new PaymentImportReader(reader);
+        String header = paymentImportReader.readLine();
+
+        if (Objects.isNull(header)) {
+            throw new InvalidRequestException("Payments csv should start with header " + String.join(CSV_DELIMETER, CSV_COLUMNS));
+        }
+
+        List<String> headerColumns = splitCsv(header).stream()
+                .map(String::trim)
+                .collect(Collectors.toList());
+
+        int[] columnIndexes = CSV_COLUMNS.stream()
+                .mapToInt(headerColumns::indexOf)
+                .toArray();
+
+        if (Arrays.stream(columnIndexes).anyMatch(columnIndex -> columnIndex < 0)) {
+            throw new InvalidRequestException("Payments csv header should contain columns " + String.join(CSV_DELIMETER, CSV_COLUMNS));
+        }
+
+        paymentImportReader.lineParser = line -> parseCsv(line, headerColumns.size(), columnIndexes);
+
+        return paymentImportReader;
+    }
+
+    //returns null when stream is exhausted
+    public PaymentRequestDto read() throws IOException {
+        String line = readLine();
+
+        return Objects.isNull(line) ? null : lineParser.apply(line);
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    private String readLine() throws IOException {
+        String line;
+
+        do {
+            line = reader.readLine();
+            lineNumber++;
+        } while (Objects.nonNull(line) && line.trim().isEmpty());
+
+        return line;
+    }
+
+    private static PaymentRequestDto parseJson(String line, ObjectReader paymentObjectReader) {
+        PaymentRequestDto paymentRequestDto;
+
+        try {
+            paymentRequestDto = paymentObjectReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException(e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new InvalidRequestException(e.getMessage());
+        }
+
+        if (Objects.isNull(paymentRequestDto)) {
+            throw new InvalidRequestException("Payment should be json object");
+        }
+
+        return paymentRequestDto;
+    }
+
+    private static PaymentRequestDto parseCsv(String line, int columnsCount, int[] columnIndexes) {
+        List<String> values = splitCsv(line);
+
+        if (values.size() != columnsCount) {
+            throw new InvalidRequestException("Payment should have " + columnsCount + " columns, but has " + values.size());
+        }
+
+        String price = values.get(columnIndexes[1]).trim();
+        String coPayers = values.get(columnIndexes[2]);
+
+        try {
+            return new PaymentRequestDto(values.get(columnIndexes[0]),
+                    price.isEmpty() ? null : Money.of(new BigDecimal(price)),
+                    Stream.of(coPayers.split(CO_PAYERS_DELIMETER))
+                            .map(String::trim)
+                            .filter(coPayer -> !coPayer.isEmpty())
+                            .map(Long::valueOf)
+                            .collect(Collectors.toList()));
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Price " + price + " or co-payers " + coPayers + " are not valid numbers");
+        }
+    }
+
+    //values containing delimeter or quote should be quoted, quote inside of quoted value is escaped by another quote
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+
+        for (int index = 0; index < line.length(); index++) {
+            char symbol = line.charAt(index);
+
+            if (quoted) {
+                if (symbol != '"') {
+                    value.append(symbol);
+                } else if (index + 1 < line.length() && line.charAt(index + 1) == '"') {
+                    value.append(symbol);
+                    index++;
+                } else {
+                    quoted = false;
+                }
+            } else if (symbol == '"') {
+                quoted = true;
+            } else if (CSV_DELIMETER.charAt(0) == symbol) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(symbol);
+            }
+        }
+
+        if (quoted) {
+            throw new InvalidRequestException("Payment line has unterminated quoted value");
+        }
+
+        values.add(value.toString());
+
+        return values;
+    }
+}
@@ -0,0 +1,57 @@
+package com.eleks.util;
+
+import com.eleks.dto.SettlementTransferResponse;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+public class SettlementCalculator {
+
+    private SettlementCalculator() {
+    }
+
+    //greedy minimum cash flow: the biggest debtor pays the biggest creditor until one of them is settled
+    public static List<SettlementTransferResponse> calculateTransfers(Map<Long, BigDecimal> netBalances, String currency) {
+        Comparator<Map.Entry<Long, BigDecimal>> byAmountDescending = (first, second) -> second.getValue().compareTo(first.getValue());
+
+        PriorityQueue<Map.Entry<Long, BigDecimal>> creditors = new PriorityQueue<>(Math.max(1, netBalances.size()), byAmountDescending);
+        PriorityQueue<Map.Entry<Long, BigDecimal>> debtors = new PriorityQueue<>(Math.max(1, netBalances.size()), byAmountDescending);
+
+        netBalances.forEach((userId, balance) -> {
+            if (balance.signum() > 0) {
+                creditors.add(new AbstractMap.SimpleEntry<>(userId, balance));
+            } else if (balance.signum() < 0) {
+                debtors.add(new AbstractMap.SimpleEntry<>(userId, balance.negate()));
+            }
+        });
+
+        List<SettlementTransferResponse> transfers = new ArrayList<>();
+
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            Map.Entry<Long, BigDecimal> creditor = creditors.poll();
+            Map.Entry<Long, BigDecimal> debtor = debtors.poll();
+
+            BigDecimal transferValue = creditor.getValue().min(debtor.getValue());
+
+            transfers.add(SettlementTransferResponse.builder()
+                    .fromUserId(debtor.getKey())
+                    .toUserId(creditor.getKey())
+                    .currency(currency)
+                    .value(transferValue)
+                    .build());
+
+            BigDecimal creditorRemainder = creditor.getValue().subtract(transferValue);
+            BigDecimal debtorRemainder = debtor.getValue().subtract(transferValue);
+
+            if (creditorRemainder.signum() > 0) {
+                creditors.add(new AbstractMap.SimpleEntry<>(creditor.getKey(), creditorRemainder));
+            }
+
+            if (debtorRemainder.signum() > 0) {
+                debtors.add(new AbstractMap.SimpleEntry<>(debtor.getKey(), debtorRemainder));
+            }
+        }
+
+        return transfers;
+    }
+}
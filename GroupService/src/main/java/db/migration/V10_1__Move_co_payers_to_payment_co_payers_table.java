@@ -0,0 +1,52 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+//comma separated co-payers can't be split by portable sql, so they are copied row by row in batches
+public class V10_1__Move_co_payers_to_payment_co_payers_table implements JdbcMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public void migrate(Connection connection) throws Exception {
+        try (Statement selectStatement = connection.createStatement();
+             ResultSet payments = selectStatement.executeQuery("SELECT id, co_payers FROM payments WHERE co_payers IS NOT NULL");
+             PreparedStatement insertStatement = connection.prepareStatement("INSERT INTO payment_co_payers (payment_id, user_id) VALUES (?, ?)")) {
+
+            int batchSize = 0;
+
+            while (payments.next()) {
+                Set<Long> coPayers = new LinkedHashSet<>();
+
+                Stream.of(payments.getString("co_payers").split(","))
+                        .map(String::trim)
+                        .filter(coPayer -> !coPayer.isEmpty())
+                        .map(Long::valueOf)
+                        .forEach(coPayers::add);
+
+                for (Long coPayer : coPayers) {
+                    insertStatement.setLong(1, payments.getLong("id"));
+                    insertStatement.setLong(2, coPayer);
+                    insertStatement.addBatch();
+
+                    if (++batchSize == BATCH_SIZE) {
+                        insertStatement.executeBatch();
+                        batchSize = 0;
+                    }
+                }
+            }
+
+            if (batchSize > 0) {
+                insertStatement.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+//ledger of existing groups is computed from their payments in minor units with exact split, which hands out remainder
+//minor units by payment id; split is copied here as it was at this version, so migration result doesn't follow later
+//changes of application code
+public class V5_1__Recompute_debts_ledger_in_minor_units implements JdbcMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private int batchSize;
+
+    @Override
+    public void migrate(Connection connection) throws Exception {
+        Map<Long, List<Long>> groupsMembersIds = new HashMap<>();
+
+        try (Statement selectStatement = connection.createStatement();
+             ResultSet users = selectStatement.executeQuery("SELECT group_id, user_id FROM users WHERE group_id IS NOT NULL")) {
+
+            while (users.next()) {
+                groupsMembersIds.computeIfAbsent(users.getLong("group_id"), key -> new ArrayList<>()).add(users.getLong("user_id"));
+            }
+        }
+
+        try (Statement selectStatement = connection.createStatement();
+             ResultSet payments = selectStatement.executeQuery("SELECT id, group_id, price, co_payers FROM payments WHERE group_id IS NOT NULL ORDER BY group_id");
+             PreparedStatement insertStatement = connection.prepareStatement("INSERT INTO debts (group_id, creditor_id, debtor_id, amount) VALUES (?, ?, ?, ?)")) {
+
+            Long groupId = null;
+            Map<Long, Map<Long, Long>> debts = new HashMap<>();
+
+            while (payments.next()) {
+                if (!Objects.equals(groupId, payments.getLong("group_id"))) {
+                    insertDebts(insertStatement, groupId, debts);
+                    groupId = payments.getLong("group_id");
+                    debts.clear();
+                }
+
+                addPaymentDebts(debts, payments.getLong("id"), payments.getLong("price"), parseCoPayers(payments.getString("co_payers")),
+                        groupsMembersIds.getOrDefault(groupId, Collections.emptyList()));
+            }
+
+            insertDebts(insertStatement, groupId, debts);
+
+            if (batchSize > 0) {
+                insertStatement.executeBatch();
+            }
+        }
+    }
+
+    //price is split into members * co-payers integer slots, remainder minor units go one by one to the slots
+    //starting from the one picked by payment id
+    private void addPaymentDebts(Map<Long, Map<Long, Long>> debts, long paymentId, long price, List<Long> coPayers,
+                                 List<Long> groupMembersIds) {
+        List<Long> membersIds = new ArrayList<>(new TreeSet<>(groupMembersIds));
+
+        Set<Long> coPayersIdsSet = new TreeSet<>(coPayers);
+        coPayersIdsSet.retainAll(membersIds);
+        List<Long> coPayersIds = new ArrayList<>(coPayersIdsSet);
+
+        if (coPayersIds.isEmpty() || coPayersIds.size() == membersIds.size()) {
+            return;
+        }
+
+        long slotsCount = (long) membersIds.size() * coPayersIds.size();
+
+        for (int coPayer = 0; coPayer < coPayersIds.size(); coPayer++) {
+            for (int member = 0; member < membersIds.size(); member++) {
+                if (!coPayersIdsSet.contains(membersIds.get(member))) {
+                    long slot = (long) member * coPayersIds.size() + coPayer;
+                    long share = price / slotsCount + (Math.floorMod(slot - paymentId, slotsCount) < price % slotsCount ? 1 : 0);
+
+                    debts.computeIfAbsent(coPayersIds.get(coPayer), key -> new HashMap<>()).merge(membersIds.get(member), share, Long::sum);
+                }
+            }
+        }
+    }
+
+    private void insertDebts(PreparedStatement insertStatement, Long groupId, Map<Long, Map<Long, Long>> debts) throws Exception {
+        for (Map.Entry<Long, Map<Long, Long>> creditorDebts : debts.entrySet()) {
+            for (Map.Entry<Long, Long> debt : creditorDebts.getValue().entrySet()) {
+                insertStatement.setLong(1, groupId);
+                insertStatement.setLong(2, creditorDebts.getKey());
+                insertStatement.setLong(3, debt.getKey());
+                insertStatement.setLong(4, debt.getValue());
+                insertStatement.addBatch();
+
+                if (++batchSize == BATCH_SIZE) {
+                    insertStatement.executeBatch();
+                    batchSize = 0;
+                }
+            }
+        }
+    }
+
+    private List<Long> parseCoPayers(String coPayers) {
+        return Objects.isNull(coPayers) ? Collections.emptyList() : Stream.of(coPayers.split(","))
+                .map(String::trim)
+                .filter(coPayer -> !coPayer.isEmpty())
+                .distinct()
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+    }
+}
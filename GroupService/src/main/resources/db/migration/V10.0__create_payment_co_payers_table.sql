@@ -0,0 +1,8 @@
+CREATE TABLE payment_co_payers(
+  payment_id BIGINT NOT NULL,
+  user_id BIGINT NOT NULL,
+  PRIMARY KEY (payment_id, user_id),
+  FOREIGN KEY (payment_id) REFERENCES payments (id)
+);
+
+CREATE INDEX payment_co_payers_user_id_payment_id_idx ON payment_co_payers (user_id, payment_id);
@@ -0,0 +1,11 @@
+CREATE TABLE id_generators(
+  sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+  next_val BIGINT NOT NULL
+);
+
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'groups', COALESCE(MAX(id), 0) + 50 FROM groups;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'users', COALESCE(MAX(id), 0) + 50 FROM users;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'payments', COALESCE(MAX(id), 0) + 50 FROM payments;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'debts', COALESCE(MAX(id), 0) + 50 FROM debts;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'balance_checkpoints', COALESCE(MAX(id), 0) + 50 FROM balance_checkpoints;
+INSERT INTO id_generators (sequence_name, next_val) SELECT 'checkpoint_debts', COALESCE(MAX(id), 0) + 50 FROM checkpoint_debts;
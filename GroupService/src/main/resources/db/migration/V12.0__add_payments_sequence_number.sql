@@ -0,0 +1,11 @@
+ALTER TABLE payments ADD COLUMN sequence_number BIGINT;
+UPDATE payments SET sequence_number = id;
+ALTER TABLE payments MODIFY COLUMN sequence_number BIGINT NOT NULL;
+CREATE UNIQUE INDEX payments_group_id_sequence_number_idx ON payments (group_id, sequence_number);
+
+ALTER TABLE balance_checkpoints ADD COLUMN last_payment_sequence_number BIGINT;
+UPDATE balance_checkpoints SET last_payment_sequence_number = last_payment_id;
+ALTER TABLE balance_checkpoints MODIFY COLUMN last_payment_sequence_number BIGINT NOT NULL;
+CREATE INDEX balance_checkpoints_group_id_last_payment_sequence_number_idx ON balance_checkpoints (group_id, last_payment_sequence_number);
+DROP INDEX balance_checkpoints_group_id_last_payment_id_idx ON balance_checkpoints;
+ALTER TABLE balance_checkpoints DROP COLUMN last_payment_id;
@@ -0,0 +1,4 @@
+ALTER TABLE groups ADD COLUMN payments_since_checkpoint BIGINT NOT NULL DEFAULT 0;
+UPDATE groups g SET payments_since_checkpoint = (SELECT COUNT(*) FROM payments p WHERE p.group_id = g.id AND p.sequence_number >
+    COALESCE((SELECT MAX(c.last_payment_sequence_number) FROM balance_checkpoints c WHERE c.group_id = g.id), 0));
+CREATE INDEX groups_payments_since_checkpoint_idx ON groups (payments_since_checkpoint);
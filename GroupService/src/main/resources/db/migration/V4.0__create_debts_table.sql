@@ -0,0 +1,11 @@
+CREATE TABLE debts(
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  group_id BIGINT NOT NULL,
+  creditor_id BIGINT NOT NULL,
+  debtor_id BIGINT NOT NULL,
+  amount DECIMAL(19, 3) NOT NULL,
+  FOREIGN KEY (group_id) REFERENCES groups (id),
+  UNIQUE (group_id, creditor_id, debtor_id)
+);
+
+CREATE INDEX debts_group_id_debtor_id_idx ON debts (group_id, debtor_id);
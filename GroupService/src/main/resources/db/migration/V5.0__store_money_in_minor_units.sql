@@ -0,0 +1,6 @@
+ALTER TABLE payments MODIFY COLUMN price DECIMAL(19, 2) NOT NULL;
+UPDATE payments SET price = ROUND(price * 100);
+ALTER TABLE payments MODIFY COLUMN price BIGINT NOT NULL;
+
+DELETE FROM debts;
+ALTER TABLE debts MODIFY COLUMN amount BIGINT NOT NULL;
@@ -0,0 +1,18 @@
+CREATE TABLE balance_checkpoints(
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  group_id BIGINT NOT NULL,
+  last_payment_id BIGINT NOT NULL,
+  last_payment_timestamp TIMESTAMP NOT NULL,
+  FOREIGN KEY (group_id) REFERENCES groups (id)
+);
+
+CREATE INDEX balance_checkpoints_group_id_last_payment_id_idx ON balance_checkpoints (group_id, last_payment_id);
+
+CREATE TABLE checkpoint_debts(
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  checkpoint_id BIGINT,
+  creditor_id BIGINT NOT NULL,
+  debtor_id BIGINT NOT NULL,
+  amount BIGINT NOT NULL,
+  FOREIGN KEY (checkpoint_id) REFERENCES balance_checkpoints (id)
+);
@@ -0,0 +1 @@
+CREATE INDEX payments_group_id_timestamp_idx ON payments (group_id, timestamp);
@@ -0,0 +1,3 @@
+DROP INDEX payments_group_id_timestamp_idx ON payments;
+
+CREATE INDEX payments_group_id_timestamp_id_idx ON payments (group_id, timestamp, id);
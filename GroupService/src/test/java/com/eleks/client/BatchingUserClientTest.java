@@ -0,0 +1,163 @@
+package com.eleks.client;
+
+import com.eleks.client.impl.BatchingUserClient;
+import com.eleks.dto.UserResponseDto;
+import com.eleks.dto.UsersBulkRequestDto;
+import com.eleks.exception.UserServiceException;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchingUserClientTest {
+
+    @Mock
+    private UserClient userClientMock;
+
+    private BatchingUserClient batchingUserClient;
+
+    @After
+    public void destroy() {
+        batchingUserClient.shutdown();
+    }
+
+    @Test
+    public void retrieveUsersByIds_concurrentLookupsWithinWindow_shouldSearchUnionOnce() throws Exception {
+        batchingUserClient = new BatchingUserClient(userClientMock, 200, 100, 2);
+
+        when(userClientMock.retrieveUsersByIdsAsync(any(UsersBulkRequestDto.class))).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
+                UserResponseDto.builder().id(1L).userName("testFirstName").build(),
+                UserResponseDto.builder().id(2L).userName("testSecondName").build(),
+                UserResponseDto.builder().id(3L).userName("testThirdName").build())));
+
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService lookupExecutor = Executors.newFixedThreadPool(2);
+
+        CompletableFuture<List<UserResponseDto>> firstLookup = CompletableFuture.supplyAsync(() -> {
+            awaitQuietly(startLatch);
+            return batchingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(2L, 1L)));
+        }, lookupExecutor);
+        CompletableFuture<List<UserResponseDto>> secondLookup = CompletableFuture.supplyAsync(() -> {
+            awaitQuietly(startLatch);
+            return batchingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(2L, 3L)));
+        }, lookupExecutor);
+
+        startLatch.countDown();
+
+        assertEquals(Arrays.asList(2L, 1L), Arrays.asList(firstLookup.get().get(0).getId(), firstLookup.get().get(1).getId()));
+        assertEquals(Arrays.asList(2L, 3L), Arrays.asList(secondLookup.get().get(0).getId(), secondLookup.get().get(1).getId()));
+
+        ArgumentCaptor<UsersBulkRequestDto> usersBulkRequestDtoCaptor = ArgumentCaptor.forClass(UsersBulkRequestDto.class);
+        verify(userClientMock, times(1)).retrieveUsersByIdsAsync(usersBulkRequestDtoCaptor.capture());
+
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 3L)), new HashSet<>(usersBulkRequestDtoCaptor.getValue().getUserIds()));
+
+        lookupExecutor.shutdown();
+    }
+
+    @Test
+    public void retrieveUsersByIds_batchReachedMaxSize_shouldNotWaitForWindow() {
+        batchingUserClient = new BatchingUserClient(userClientMock, 60000, 2, 2);
+
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L)))).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
+                UserResponseDto.builder().id(1L).userName("testFirstName").build(),
+                UserResponseDto.builder().id(2L).userName("testSecondName").build())));
+
+        assertEquals(2, batchingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(1L, 2L))).size());
+    }
+
+    @Test
+    public void areUserIdsValid_concurrentValidationsWithinWindow_shouldSearchUnionOnceAndAnswerEachCaller() throws Exception {
+        batchingUserClient = new BatchingUserClient(userClientMock, 200, 100, 2);
+
+        when(userClientMock.retrieveExistingUserIdsAsync(any(UsersBulkRequestDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(Arrays.asList(1L, 2L)));
+
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService validationExecutor = Executors.newFixedThreadPool(2);
+
+        CompletableFuture<Boolean> firstValidation = CompletableFuture.supplyAsync(() -> {
+            awaitQuietly(startLatch);
+            return batchingUserClient.areUserIdsValid(new UsersBulkRequestDto(Arrays.asList(2L, 1L)));
+        }, validationExecutor);
+        CompletableFuture<Boolean> secondValidation = CompletableFuture.supplyAsync(() -> {
+            awaitQuietly(startLatch);
+            return batchingUserClient.areUserIdsValid(new UsersBulkRequestDto(Arrays.asList(2L, 7L)));
+        }, validationExecutor);
+
+        startLatch.countDown();
+
+        assertTrue(firstValidation.get());
+        assertFalse(secondValidation.get());
+
+        ArgumentCaptor<UsersBulkRequestDto> usersBulkRequestDtoCaptor = ArgumentCaptor.forClass(UsersBulkRequestDto.class);
+        verify(userClientMock, times(1)).retrieveExistingUserIdsAsync(usersBulkRequestDtoCaptor.capture());
+        verify(userClientMock, never()).areUserIdsValidAsync(any(UsersBulkRequestDto.class));
+
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L, 7L)), new HashSet<>(usersBulkRequestDtoCaptor.getValue().getUserIds()));
+
+        validationExecutor.shutdown();
+    }
+
+    @Test
+    public void retrieveExistingUserIds_batchReachedMaxSize_shouldReturnOnlyExistingIdsOfCaller() {
+        batchingUserClient = new BatchingUserClient(userClientMock, 60000, 3, 2);
+
+        when(userClientMock.retrieveExistingUserIdsAsync(new UsersBulkRequestDto(Arrays.asList(7L, 1L, 2L))))
+                .thenReturn(CompletableFuture.completedFuture(Arrays.asList(1L, 2L)));
+
+        assertEquals(Arrays.asList(1L, 2L), batchingUserClient.retrieveExistingUserIds(new UsersBulkRequestDto(Arrays.asList(7L, 1L, 2L, 1L))));
+    }
+
+    @Test
+    public void areUserIdsValid_emptyUserIds_shouldValidateThemWithoutBatching() {
+        batchingUserClient = new BatchingUserClient(userClientMock, 60000, 100, 2);
+
+        when(userClientMock.areUserIdsValidAsync(new UsersBulkRequestDto(Collections.emptyList())))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        assertFalse(batchingUserClient.areUserIdsValid(new UsersBulkRequestDto(Collections.emptyList())));
+        verify(userClientMock, never()).retrieveExistingUserIdsAsync(any(UsersBulkRequestDto.class));
+    }
+
+    @Test
+    public void retrieveUsersByIds_userServiceFailed_shouldRethrowUserServiceException() {
+        batchingUserClient = new BatchingUserClient(userClientMock, 1, 100, 2);
+
+        CompletableFuture<List<UserResponseDto>> failedLookup = new CompletableFuture<>();
+        failedLookup.completeExceptionally(new UserServiceException("testMessage"));
+
+        when(userClientMock.retrieveUsersByIdsAsync(any(UsersBulkRequestDto.class))).thenReturn(failedLookup);
+
+        assertThatThrownBy(() -> batchingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Collections.singletonList(1L))))
+                .isInstanceOf(UserServiceException.class)
+                .hasMessage("testMessage");
+    }
+
+    private void awaitQuietly(CountDownLatch countDownLatch) {
+        try {
+            countDownLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
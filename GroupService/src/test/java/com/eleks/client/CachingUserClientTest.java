@@ -0,0 +1,139 @@
+package com.eleks.client;
+
+import com.eleks.client.impl.CachingUserClient;
+import com.eleks.dto.UserResponseDto;
+import com.eleks.dto.UsersBulkRequestDto;
+import com.eleks.exception.UserServiceException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingUserClientTest {
+
+    @Mock
+    private UserClient userClientMock;
+
+    private CachingUserClient cachingUserClient;
+
+    private UserResponseDto firstUserResponseDto, secondUserResponseDto, thirdUserResponseDto;
+
+    @Before
+    public void init() {
+        cachingUserClient = new CachingUserClient(userClientMock, 2, 60000);
+
+        firstUserResponseDto = UserResponseDto.builder().id(1L).userName("testFirstName").build();
+        secondUserResponseDto = UserResponseDto.builder().id(2L).userName("testSecondName").build();
+        thirdUserResponseDto = UserResponseDto.builder().id(3L).userName("testThirdName").build();
+    }
+
+    @Test
+    public void retrieveUsersByIds_partOfUsersCached_shouldRetrieveOnlyMissingUsersInRequestedOrder() {
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Collections.singletonList(1L))))
+                .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(firstUserResponseDto)));
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Collections.singletonList(2L))))
+                .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(secondUserResponseDto)));
+
+        cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Collections.singletonList(1L)));
+
+        assertEquals(Arrays.asList(secondUserResponseDto, firstUserResponseDto),
+                cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(2L, 1L))));
+        verify(userClientMock).retrieveUsersByIdsAsync(new UsersBulkRequestDto(Collections.singletonList(2L)));
+    }
+
+    @Test
+    public void retrieveUsersByIds_allUsersCached_shouldNotCallUserService() {
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L))))
+                .thenReturn(CompletableFuture.completedFuture(Arrays.asList(firstUserResponseDto, secondUserResponseDto)));
+
+        cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(1L, 2L)));
+        cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(1L, 2L)));
+
+        verify(userClientMock, times(1)).retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L)));
+    }
+
+    @Test
+    public void retrieveUsersByIds_userDoesNotExist_shouldSkipHim() {
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 7L))))
+                .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(firstUserResponseDto)));
+
+        assertEquals(Collections.singletonList(firstUserResponseDto),
+                cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(1L, 7L))));
+    }
+
+    @Test
+    public void retrieveUsersByIds_missingUsersCanNotBeFetched_shouldReturnCachedUsers() {
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Collections.singletonList(1L))))
+                .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(firstUserResponseDto)));
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Collections.singletonList(2L))))
+                .thenReturn(failedFuture(new UserServiceException("User service circuit breaker is open")));
+
+        cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Collections.singletonList(1L)));
+
+        assertEquals(Collections.singletonList(firstUserResponseDto),
+                cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(2L, 1L))));
+    }
+
+    @Test
+    public void retrieveUsersByIds_noUsersCachedAndUsersCanNotBeFetched_shouldThrowFetchException() {
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Collections.singletonList(2L))))
+                .thenReturn(failedFuture(new UserServiceException("User service circuit breaker is open")));
+
+        assertThatThrownBy(() -> cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Collections.singletonList(2L))))
+                .isInstanceOf(UserServiceException.class)
+                .hasMessage("User service circuit breaker is open");
+    }
+
+    @Test
+    public void retrieveUsersByIdsAsync_allUsersCached_shouldReturnCompletedFuture() {
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Collections.singletonList(1L))))
+                .thenReturn(CompletableFuture.completedFuture(Collections.singletonList(firstUserResponseDto)));
+
+        cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Collections.singletonList(1L)));
+
+        CompletableFuture<List<UserResponseDto>> usersLookup =
+                cachingUserClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Collections.singletonList(1L)));
+
+        assertTrue(usersLookup.isDone());
+        assertEquals(Collections.singletonList(firstUserResponseDto), usersLookup.join());
+    }
+
+    @Test
+    public void metrics_cacheOverflowed_shouldExposeHitsMissesAndEvictions() {
+        when(userClientMock.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L, 3L))))
+                .thenReturn(CompletableFuture.completedFuture(Arrays.asList(firstUserResponseDto, secondUserResponseDto, thirdUserResponseDto)));
+
+        cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(1L, 2L, 3L)));
+        cachingUserClient.retrieveUsersByIds(new UsersBulkRequestDto(Collections.singletonList(3L)));
+
+        Map<String, Number> metrics = cachingUserClient.metrics().stream()
+                .collect(Collectors.toMap(Metric::getName, Metric::getValue));
+
+        assertEquals(1L, metrics.get("users.cache.hits"));
+        assertEquals(3L, metrics.get("users.cache.misses"));
+        assertEquals(1L, metrics.get("users.cache.evictions"));
+        assertEquals(2, metrics.get("users.cache.size"));
+    }
+
+    private CompletableFuture<List<UserResponseDto>> failedFuture(RuntimeException exception) {
+        CompletableFuture<List<UserResponseDto>> future = new CompletableFuture<>();
+        future.completeExceptionally(exception);
+
+        return future;
+    }
+}
@@ -0,0 +1,105 @@
+package com.eleks.client;
+
+import com.eleks.client.impl.CircuitBreakingUserClient;
+import com.eleks.dto.UserResponseDto;
+import com.eleks.dto.UsersBulkRequestDto;
+import com.eleks.exception.UserServiceException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CircuitBreakingUserClientTest {
+
+    @Mock
+    private UserClient userClientMock;
+
+    private CircuitBreakingUserClient circuitBreakingUserClient;
+
+    private UsersBulkRequestDto usersBulkRequestDto;
+
+    @Before
+    public void init() {
+        circuitBreakingUserClient = new CircuitBreakingUserClient(userClientMock, 2, 60000);
+        usersBulkRequestDto = new UsersBulkRequestDto(Collections.singletonList(1L));
+    }
+
+    @Test
+    public void retrieveUsersByIds_failureThresholdReached_shouldRejectWithoutCallingUserService() {
+        when(userClientMock.retrieveUsersByIdsAsync(usersBulkRequestDto))
+                .thenReturn(failedFuture(new UserServiceException("503 Service Unavailable")));
+
+        assertThatThrownBy(() -> circuitBreakingUserClient.retrieveUsersByIds(usersBulkRequestDto)).hasMessage("503 Service Unavailable");
+        assertThatThrownBy(() -> circuitBreakingUserClient.retrieveUsersByIds(usersBulkRequestDto)).hasMessage("503 Service Unavailable");
+        assertThatThrownBy(() -> circuitBreakingUserClient.retrieveUsersByIds(usersBulkRequestDto))
+                .isInstanceOf(UserServiceException.class)
+                .hasMessage("User service circuit breaker is open");
+
+        verify(userClientMock, times(2)).retrieveUsersByIdsAsync(usersBulkRequestDto);
+
+        Map<String, Number> metrics = metrics();
+
+        assertEquals(2, metrics.get("users.circuitBreaker.state"));
+        assertEquals(1L, metrics.get("users.circuitBreaker.openings"));
+        assertEquals(1L, metrics.get("users.circuitBreaker.rejections"));
+    }
+
+    @Test
+    public void retrieveUsersByIds_clientErrors_shouldNotOpenCircuit() {
+        when(userClientMock.retrieveUsersByIdsAsync(usersBulkRequestDto)).thenReturn(failedFuture(new UserServiceException("404 Not Found",
+                new HttpClientErrorException(HttpStatus.NOT_FOUND))));
+
+        for (int call = 0; call < 3; call++) {
+            assertThatThrownBy(() -> circuitBreakingUserClient.retrieveUsersByIds(usersBulkRequestDto)).hasMessage("404 Not Found");
+        }
+
+        assertEquals(0, metrics().get("users.circuitBreaker.state"));
+    }
+
+    @Test
+    public void retrieveUsersByIds_bulkheadIsFull_shouldThrowUserServiceExceptionAndCountRejection() {
+        when(userClientMock.retrieveUsersByIdsAsync(any(UsersBulkRequestDto.class))).thenThrow(new RejectedExecutionException());
+
+        assertThatThrownBy(() -> circuitBreakingUserClient.retrieveUsersByIds(usersBulkRequestDto))
+                .isInstanceOf(UserServiceException.class)
+                .hasMessage("User service bulkhead is full");
+        assertEquals(1L, metrics().get("users.bulkhead.rejections"));
+    }
+
+    @Test
+    public void areUserIdsValid_userServiceIsUp_shouldReturnDelegateResult() {
+        when(userClientMock.areUserIdsValidAsync(usersBulkRequestDto)).thenReturn(CompletableFuture.completedFuture(true));
+
+        assertTrue(circuitBreakingUserClient.areUserIdsValid(usersBulkRequestDto));
+    }
+
+    private Map<String, Number> metrics() {
+        return circuitBreakingUserClient.metrics().stream()
+                .collect(Collectors.toMap(Metric::getName, Metric::getValue));
+    }
+
+    private CompletableFuture<List<UserResponseDto>> failedFuture(Throwable throwable) {
+        CompletableFuture<List<UserResponseDto>> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+
+        return future;
+    }
+}
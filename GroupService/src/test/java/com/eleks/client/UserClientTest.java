@@ -7,12 +7,16 @@ import com.eleks.dto.UsersBulkRequestDto;
 import com.eleks.exception.UserServiceException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.util.ReflectionUtils;
@@ -22,6 +26,9 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
@@ -36,6 +43,12 @@ public class UserClientTest {
     @Autowired
     private UserClientImpl userClient;
 
+    @Autowired
+    private PoolingHttpClientConnectionManager httpClientConnectionManager;
+
+    @Autowired
+    private PublicMetrics httpClientPoolMetrics;
+
     @Rule
     public WireMockRule wireMockRule = new WireMockRule(wireMockConfig().dynamicPort());
 
@@ -49,44 +62,31 @@ public class UserClientTest {
     }
 
     @Test
-    public void searchUsersByIds_usersIdsCountSameAsReturnedUsersCount_shouldReturnTrue() throws JsonProcessingException {
-
-        UsersBulkRequestDto usersBulkRequestDto = new UsersBulkRequestDto(Arrays.asList(1L, 4L));
-
-        UserResponseDto userResponseDtoExpectedFirst =
-                new UserResponseDto(1L, "testUserName", "testFirstName", "testLastName",
-                        LocalDate.of(2010, 10, 10), "testEmail", true);
-
-        UserResponseDto userResponseDtoExpectedSecond =
-                new UserResponseDto(4L, "testUserName", "testFirstName", "testLastName",
-                        LocalDate.of(2010, 10, 10), "testEmail", true);
+    public void searchUsersByIds_allUsersIdsReturned_shouldReturnTrue() throws JsonProcessingException {
 
+        UsersBulkRequestDto usersBulkRequestDto = new UsersBulkRequestDto(Arrays.asList(1L, 4L, 1L));
 
-        stubFor(post(urlMatching("/users/search"))
+        stubFor(post(urlMatching("/users/search/ids"))
                 .withRequestBody(equalToJson(objectMapper.writeValueAsString(usersBulkRequestDto)))
                 .willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", APPLICATION_JSON_VALUE)
-                        .withBody(objectMapper.writeValueAsString(Arrays.asList(userResponseDtoExpectedFirst, userResponseDtoExpectedSecond)))));
+                        .withBody(objectMapper.writeValueAsString(Arrays.asList(1L, 4L)))));
 
         assertTrue(userClient.areUserIdsValid(usersBulkRequestDto));
     }
 
     @Test
-    public void searchUsersByIds_usersIdsCountNotSameAsReturnedUsersCount_shouldReturnFalse() throws JsonProcessingException {
+    public void searchUsersByIds_notAllUsersIdsReturned_shouldReturnFalse() throws JsonProcessingException {
 
         UsersBulkRequestDto usersBulkRequestDto = new UsersBulkRequestDto(Arrays.asList(1L, 4L));
 
-        UserResponseDto userResponseDtoExpected =
-                new UserResponseDto(1L, "testUserName", "testFirstName", "testLastName",
-                        LocalDate.of(2010, 10, 10), "testEmail", true);
-
-        stubFor(post(urlMatching("/users/search"))
+        stubFor(post(urlMatching("/users/search/ids"))
                 .withRequestBody(equalToJson(objectMapper.writeValueAsString(usersBulkRequestDto)))
                 .willReturn(aResponse()
                         .withStatus(200)
                         .withHeader("Content-Type", APPLICATION_JSON_VALUE)
-                        .withBody(objectMapper.writeValueAsString(Collections.singletonList(userResponseDtoExpected)))));
+                        .withBody(objectMapper.writeValueAsString(Collections.singletonList(1L)))));
 
         assertFalse(userClient.areUserIdsValid(usersBulkRequestDto));
     }
@@ -94,7 +94,7 @@ public class UserClientTest {
     @Test
     public void searchUsersByIds_responseWithBadRequestHttpStatus_shouldReturnFalse() {
 
-        stubFor(post(urlMatching("/users/search"))
+        stubFor(post(urlMatching("/users/search/ids"))
                 .willReturn(aResponse().withStatus(400)));
 
         assertFalse(userClient.areUserIdsValid(new UsersBulkRequestDto(Arrays.asList(1L, 4L))));
@@ -103,7 +103,7 @@ public class UserClientTest {
     @Test
     public void searchUsersByIds_responseWithNotFoundHttpStatus_shouldReturnFalse() {
 
-        stubFor(post(urlMatching("/users/search"))
+        stubFor(post(urlMatching("/users/search/ids"))
                 .willReturn(aResponse().withStatus(404)));
 
         assertFalse(userClient.areUserIdsValid(new UsersBulkRequestDto(Arrays.asList(1L, 4L))));
@@ -112,7 +112,7 @@ public class UserClientTest {
     @Test
     public void searchUsersByIds_responseWithConflictHttpStatus_shouldReturnFalse() {
 
-        stubFor(post(urlMatching("/users/search"))
+        stubFor(post(urlMatching("/users/search/ids"))
                 .willReturn(aResponse().withStatus(409)));
 
         assertFalse(userClient.areUserIdsValid(new UsersBulkRequestDto(Arrays.asList(1L, 4L))));
@@ -121,7 +121,7 @@ public class UserClientTest {
     @Test
     public void searchUsersByIds_responseWithInternalServerErrorHttpStatus_shouldThrowUserServiceException() {
 
-        stubFor(post(urlMatching("/users/search"))
+        stubFor(post(urlMatching("/users/search/ids"))
                 .willReturn(aResponse().withStatus(500)));
 
         assertThatThrownBy(() -> userClient.areUserIdsValid(new UsersBulkRequestDto(Arrays.asList(1L, 4L))))
@@ -132,7 +132,7 @@ public class UserClientTest {
     @Test
     public void searchUsersByIds_responseWithServiceUnavailableHttpStatus_shouldThrowUserServiceException() {
 
-        stubFor(post(urlMatching("/users/search"))
+        stubFor(post(urlMatching("/users/search/ids"))
                 .willReturn(aResponse().withStatus(503)));
 
         assertThatThrownBy(() -> userClient.areUserIdsValid(new UsersBulkRequestDto(Arrays.asList(1L, 4L))))
@@ -140,6 +140,41 @@ public class UserClientTest {
                 .hasMessage("503 Service Unavailable");
     }
 
+    @Test
+    public void retrieveExistingUserIds_someUsersIdsReturned_shouldReturnThem() throws JsonProcessingException {
+
+        UsersBulkRequestDto usersBulkRequestDto = new UsersBulkRequestDto(Arrays.asList(1L, 4L));
+
+        stubFor(post(urlMatching("/users/search/ids"))
+                .withRequestBody(equalToJson(objectMapper.writeValueAsString(usersBulkRequestDto)))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", APPLICATION_JSON_VALUE)
+                        .withBody(objectMapper.writeValueAsString(Collections.singletonList(1L)))));
+
+        assertEquals(Collections.singletonList(1L), userClient.retrieveExistingUserIds(usersBulkRequestDto));
+    }
+
+    @Test
+    public void retrieveExistingUserIds_responseWithBadRequestHttpStatus_shouldReturnEmptyList() {
+
+        stubFor(post(urlMatching("/users/search/ids"))
+                .willReturn(aResponse().withStatus(400)));
+
+        assertTrue(userClient.retrieveExistingUserIds(new UsersBulkRequestDto(Arrays.asList(1L, 4L))).isEmpty());
+    }
+
+    @Test
+    public void retrieveExistingUserIds_responseWithInternalServerErrorHttpStatus_shouldThrowUserServiceException() {
+
+        stubFor(post(urlMatching("/users/search/ids"))
+                .willReturn(aResponse().withStatus(500)));
+
+        assertThatThrownBy(() -> userClient.retrieveExistingUserIds(new UsersBulkRequestDto(Arrays.asList(1L, 4L))))
+                .isInstanceOf(UserServiceException.class)
+                .hasMessage("500 Server Error");
+    }
+
     @Test
     public void retrieveUsersByIds_responseEntityHasBody_shouldReturnListOfUserResponseDto() throws JsonProcessingException {
 
@@ -229,4 +264,38 @@ public class UserClientTest {
                 .isInstanceOf(UserServiceException.class)
                 .hasMessage("503 Service Unavailable");
     }
+
+    @Test
+    public void retrieveUsersByIds_emptyResponse_shouldThrowUserServiceException() {
+
+        stubFor(post(urlMatching("/users/search"))
+                .willReturn(aResponse().withFault(Fault.EMPTY_RESPONSE)));
+
+        assertThatThrownBy(() -> userClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(1L, 4L))))
+                .isInstanceOf(UserServiceException.class);
+    }
+
+    @Test
+    public void retrieveUsersByIds_sequentialRequests_shouldReuseKeptAliveConnection() throws JsonProcessingException {
+
+        stubFor(post(urlMatching("/users/search"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", APPLICATION_JSON_VALUE)
+                        .withBody(objectMapper.writeValueAsString(Collections.singletonList(new UserResponseDto(1L, "testUserName",
+                                "testFirstName", "testLastName", LocalDate.of(2010, 10, 10), "testEmail", true))))));
+
+        httpClientConnectionManager.closeIdleConnections(0, TimeUnit.MILLISECONDS);
+
+        userClient.retrieveUsersByIds(new UsersBulkRequestDto(Collections.singletonList(1L)));
+        userClient.retrieveUsersByIds(new UsersBulkRequestDto(Collections.singletonList(1L)));
+
+        Map<String, Number> poolMetrics = httpClientPoolMetrics.metrics().stream()
+                .collect(Collectors.toMap(Metric::getName, Metric::getValue));
+
+        assertEquals(0, poolMetrics.get("users.http.pool.leased"));
+        assertEquals(1, poolMetrics.get("users.http.pool.available"));
+        assertEquals(0, poolMetrics.get("users.http.pool.pending"));
+        assertEquals(200, poolMetrics.get("users.http.pool.max"));
+    }
 }
@@ -1,8 +1,11 @@
 package com.eleks.controller;
 
 import com.eleks.dto.ErrorResponseDto;
+import com.eleks.dto.GroupBalancesResponse;
 import com.eleks.dto.GroupRequestDto;
 import com.eleks.dto.GroupResponseDto;
+import com.eleks.dto.MemberBalanceResponse;
+import com.eleks.dto.SettlementTransferResponse;
 import com.eleks.dto.UserStatusResponse;
 import com.eleks.handler.ErrorResponseExceptionHandler;
 import com.eleks.service.GroupService;
@@ -20,6 +23,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -301,7 +305,7 @@ public class GroupControllerTest {
                 new UserStatusResponse(4L, "testUserNameFirst", "UA", new BigDecimal("2.5")),
                         new UserStatusResponse(4L, "testUserNameFirst", "UA", new BigDecimal("2.5")));
 
-        when(groupServiceMock.retrieveGroupMemberOwings(3L, 4L)).thenReturn(userStatusResponsesExpected);
+        when(groupServiceMock.retrieveGroupMemberOwings(3L, 4L, null)).thenReturn(userStatusResponsesExpected);
 
         MvcResult mvcResult = mockMvc.perform(get(GROUP_CONTROLLER_GENERAL_PATH + "/3/users/4/status"))
                 .andExpect(status().isOk())
@@ -313,4 +317,52 @@ public class GroupControllerTest {
 
         assertEquals(userStatusResponsesExpected, userStatusResponsesActual);
     }
+
+    @Test
+    public void retrieveGroupMemberOwings_asOfRequestParamPresent_shouldPassParsedAsOfToService() throws Exception {
+        when(groupServiceMock.retrieveGroupMemberOwings(3L, 4L, LocalDateTime.of(2019, 1, 31, 23, 59, 59)))
+                .thenReturn(Collections.singletonList(new UserStatusResponse(2L, "testUserNameSecond", "UA", new BigDecimal("2.5"))));
+
+        mockMvc.perform(get(GROUP_CONTROLLER_GENERAL_PATH + "/3/users/4/status").param("asOf", "2019-01-31T23:59:59"))
+                .andExpect(status().isOk());
+
+        verify(groupServiceMock).retrieveGroupMemberOwings(3L, 4L, LocalDateTime.of(2019, 1, 31, 23, 59, 59));
+    }
+
+    @Test
+    public void retrieveGroupSettlement_pathVariableGroupIdPresent_shouldReturnOkHttpStatusWithProperListOfTransfers() throws Exception {
+        List<SettlementTransferResponse> settlementTransfersExpected = Arrays.asList(
+                new SettlementTransferResponse(4L, 1L, "UA", new BigDecimal("2.5")),
+                new SettlementTransferResponse(2L, 1L, "UA", new BigDecimal("7.25")));
+
+        when(groupServiceMock.retrieveGroupSettlement(3L)).thenReturn(settlementTransfersExpected);
+
+        MvcResult mvcResult = mockMvc.perform(get(GROUP_CONTROLLER_GENERAL_PATH + "/3/settlement"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String responseString = mvcResult.getResponse().getContentAsString();
+        List<SettlementTransferResponse> settlementTransfersActual = objectMapper.readValue(responseString,
+                new TypeReference<List<SettlementTransferResponse>>() {
+                });
+
+        assertEquals(settlementTransfersExpected, settlementTransfersActual);
+    }
+
+    @Test
+    public void retrieveGroupBalances_pathVariableGroupIdPresent_shouldReturnOkHttpStatusWithProperBalances() throws Exception {
+        GroupBalancesResponse groupBalancesResponseExpected = new GroupBalancesResponse(3L, "UA", Collections.singletonList(
+                new MemberBalanceResponse(4L, "testUserNameFirst", new BigDecimal("2.5"), new BigDecimal("5.0"), Collections.singletonList(
+                        new UserStatusResponse(5L, "testUserNameSecond", "UA", new BigDecimal("2.5"))))));
+
+        when(groupServiceMock.retrieveGroupBalances(3L)).thenReturn(groupBalancesResponseExpected);
+
+        MvcResult mvcResult = mockMvc.perform(get(GROUP_CONTROLLER_GENERAL_PATH + "/3/balances"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String responseString = mvcResult.getResponse().getContentAsString();
+
+        assertEquals(groupBalancesResponseExpected, objectMapper.readValue(responseString, GroupBalancesResponse.class));
+    }
 }
@@ -1,11 +1,12 @@
 package com.eleks.controller;
 
 import com.eleks.dto.ErrorResponseDto;
+import com.eleks.dto.Money;
 import com.eleks.dto.PaymentRequestDto;
 import com.eleks.dto.PaymentResponseDto;
+import com.eleks.dto.PaymentsPageResponse;
 import com.eleks.handler.ErrorResponseExceptionHandler;
 import com.eleks.service.PaymentService;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
@@ -21,7 +22,6 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -49,7 +49,7 @@ public class PaymentControllerTest {
 
     @Before
     public void init() {
-        paymentRequestDto = new PaymentRequestDto("paymentDescriptionTest", 12.3, Arrays.asList(1L, 2L));
+        paymentRequestDto = new PaymentRequestDto("paymentDescriptionTest", Money.ofMinorUnits(1230), Arrays.asList(1L, 2L));
 
         mockMvc = MockMvcBuilders.standaloneSetup(paymentController)
                 .setControllerAdvice(new ErrorResponseExceptionHandler())
@@ -122,6 +122,33 @@ public class PaymentControllerTest {
         assertNotNull(errorResponseDtoActual.getTimestamp());
     }
 
+    @Test
+    public void createPayment_priceHasMoreThan2DecimalPlaces_shouldReturnBadRequestHttpStatus() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(post(PAYMENT_CONTROLLER_GENERAL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"paymentDescription\":\"paymentDescriptionTest\",\"price\":12.345,\"coPayers\":[1,2]}"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        String responseString = mvcResult.getResponse().getContentAsString();
+        ErrorResponseDto errorResponseDtoActual = objectMapper.readValue(responseString, ErrorResponseDto.class);
+
+        assertEquals("Money amount 12.345 should have at most 2 decimal places", errorResponseDtoActual.getMessage());
+        assertEquals(400, errorResponseDtoActual.getStatusCode());
+        assertNotNull(errorResponseDtoActual.getTimestamp());
+    }
+
+    @Test
+    public void createPayment_priceWithCents_shouldPassExactPriceToService() throws Exception {
+        mockMvc.perform(post(PAYMENT_CONTROLLER_GENERAL_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"paymentDescription\":\"paymentDescriptionTest\",\"price\":0.3,\"coPayers\":[1,2]}"))
+                .andExpect(status().isCreated());
+
+        verify(paymentServiceMock).createPayment(
+                new PaymentRequestDto("paymentDescriptionTest", Money.ofMinorUnits(30), Arrays.asList(1L, 2L)), 3L);
+    }
+
     @Test
     public void createPayment_coPayersListIsNull_shouldReturnBadRequestHttpStatus() throws Exception {
         paymentRequestDto.setCoPayers(null);
@@ -142,23 +169,35 @@ public class PaymentControllerTest {
 
     @Test
     public void retrievePayments_pathVariableGroupIdPresent_shouldReturnOkHttpStatusWithRetrievedListOfPayments() throws Exception {
-        PaymentResponseDto paymentResponseDtoFirstExpected = new PaymentResponseDto(1L, 22L, "testPaymentDescription", 1.2, Arrays.asList(1L, 2L), 4L,
+        PaymentResponseDto paymentResponseDtoFirstExpected = new PaymentResponseDto(1L, 22L, "testPaymentDescription", Money.ofMinorUnits(120), Arrays.asList(1L, 2L), 4L,
                 LocalDateTime.of(2012, 1, 1, 10, 15, 3));
 
-        PaymentResponseDto paymentResponseDtoSecondExpected = new PaymentResponseDto(1L, 22L, "testPaymentDescription", 1.2, Arrays.asList(1L, 2L), 4L,
+        PaymentResponseDto paymentResponseDtoSecondExpected = new PaymentResponseDto(1L, 22L, "testPaymentDescription", Money.ofMinorUnits(120), Arrays.asList(1L, 2L), 4L,
                 LocalDateTime.of(2012, 1, 1, 10, 15, 3));
 
-        when(paymentServiceMock.retrievePayments(3L)).thenReturn(Arrays.asList(paymentResponseDtoFirstExpected, paymentResponseDtoSecondExpected));
+        PaymentsPageResponse paymentsPageResponseExpected = new PaymentsPageResponse(
+                Arrays.asList(paymentResponseDtoFirstExpected, paymentResponseDtoSecondExpected), "testCursor");
+
+        when(paymentServiceMock.retrievePayments(3L, null, 50)).thenReturn(paymentsPageResponseExpected);
 
         MvcResult mvcResult = mockMvc.perform(get(PAYMENT_CONTROLLER_GENERAL_PATH))
                 .andExpect(status().isOk())
                 .andReturn();
 
         String responseString = mvcResult.getResponse().getContentAsString();
-        List<PaymentResponseDto> paymentResponseDtoListActual = objectMapper.readValue(responseString, new TypeReference<List<PaymentResponseDto>>() {
-        });
+        PaymentsPageResponse paymentsPageResponseActual = objectMapper.readValue(responseString, PaymentsPageResponse.class);
+
+        assertEquals(paymentsPageResponseExpected, paymentsPageResponseActual);
+    }
+
+    @Test
+    public void retrievePayments_cursorAndLimitRequestParamsPresent_shouldPassThemToService() throws Exception {
+        when(paymentServiceMock.retrievePayments(3L, "testCursor", 10)).thenReturn(new PaymentsPageResponse(Collections.emptyList(), null));
+
+        mockMvc.perform(get(PAYMENT_CONTROLLER_GENERAL_PATH).param("cursor", "testCursor").param("limit", "10"))
+                .andExpect(status().isOk());
 
-        assertEquals(Arrays.asList(paymentResponseDtoFirstExpected, paymentResponseDtoSecondExpected), paymentResponseDtoListActual);
+        verify(paymentServiceMock).retrievePayments(3L, "testCursor", 10);
     }
 
     @Test
@@ -169,7 +208,7 @@ public class PaymentControllerTest {
 
     @Test
     public void retrievePayment_pathVariablesGroupIdAndPaymentIdPresent_shouldReturnOkHttpStatusWithRetrievedPayment() throws Exception {
-        PaymentResponseDto paymentResponseDtoExpected = new PaymentResponseDto(1L, 22L, "testPaymentDescription", 1.2, Arrays.asList(1L, 2L), 4L,
+        PaymentResponseDto paymentResponseDtoExpected = new PaymentResponseDto(1L, 22L, "testPaymentDescription", Money.ofMinorUnits(120), Arrays.asList(1L, 2L), 4L,
                 LocalDateTime.of(2012, 1, 1, 10, 15, 3));
 
         when(paymentServiceMock.retrievePayment(3L, 4L)).thenReturn(paymentResponseDtoExpected);
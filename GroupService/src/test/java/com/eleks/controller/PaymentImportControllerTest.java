@@ -0,0 +1,97 @@
+package com.eleks.controller;
+
+import com.eleks.dto.ErrorResponseDto;
+import com.eleks.dto.PaymentImportError;
+import com.eleks.dto.PaymentsImportResponse;
+import com.eleks.handler.ErrorResponseExceptionHandler;
+import com.eleks.service.PaymentImportService;
+import com.eleks.util.PaymentImportReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PaymentImportControllerTest {
+
+    private static final String PAYMENT_IMPORT_CONTROLLER_PATH = "/groups/3/payments:import";
+
+    @Mock
+    private PaymentImportService paymentImportServiceMock;
+
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    private PaymentsImportResponse paymentsImportResponse;
+
+    @Before
+    public void init() {
+        paymentsImportResponse = PaymentsImportResponse.builder()
+                .importedCount(1)
+                .failedCount(1)
+                .errors(Collections.singletonList(new PaymentImportError(2, "Co-payers ids are not members of group with id 3")))
+                .completed(true)
+                .build();
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new PaymentImportController(paymentImportServiceMock, objectMapper))
+                .setControllerAdvice(new ErrorResponseExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public void importPayments_ndjsonBody_shouldReturnImportReport() throws Exception {
+        ArgumentCaptor<PaymentImportReader> paymentImportReaderCaptor = ArgumentCaptor.forClass(PaymentImportReader.class);
+        when(paymentImportServiceMock.importPayments(eq(3L), any(PaymentImportReader.class))).thenReturn(paymentsImportResponse);
+
+        MvcResult mvcResult = mockMvc.perform(post(PAYMENT_IMPORT_CONTROLLER_PATH)
+                .contentType(MediaType.parseMediaType(PaymentImportReader.NDJSON_MEDIA_TYPE))
+                .content("{\"paymentDescription\":\"first\",\"price\":10,\"coPayers\":[1]}\n"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(paymentsImportResponse, objectMapper.readValue(mvcResult.getResponse().getContentAsString(), PaymentsImportResponse.class));
+        verify(paymentImportServiceMock).importPayments(eq(3L), paymentImportReaderCaptor.capture());
+        assertEquals("first", paymentImportReaderCaptor.getValue().read().getPaymentDescription());
+    }
+
+    @Test
+    public void importPayments_csvBodyWithoutRequiredColumns_shouldReturnBadRequestHttpStatus() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(post(PAYMENT_IMPORT_CONTROLLER_PATH)
+                .contentType(MediaType.parseMediaType(PaymentImportReader.CSV_MEDIA_TYPE))
+                .content("paymentDescription,price\n"))
+                .andExpect(status().isBadRequest())
+                .andReturn();
+
+        ErrorResponseDto errorResponseDtoActual = objectMapper.readValue(mvcResult.getResponse().getContentAsString(), ErrorResponseDto.class);
+
+        assertEquals("Payments csv header should contain columns paymentDescription,price,coPayers", errorResponseDtoActual.getMessage());
+        verifyZeroInteractions(paymentImportServiceMock);
+    }
+
+    @Test
+    public void importPayments_unsupportedContentType_shouldReturnUnsupportedMediaTypeHttpStatus() throws Exception {
+        mockMvc.perform(post(PAYMENT_IMPORT_CONTROLLER_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+}
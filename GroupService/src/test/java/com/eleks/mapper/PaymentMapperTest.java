@@ -1,5 +1,6 @@
 package com.eleks.mapper;
 
+import com.eleks.dto.Money;
 import com.eleks.dto.PaymentRequestDto;
 import com.eleks.dto.PaymentResponseDto;
 import com.eleks.entity.PaymentEntity;
@@ -19,12 +20,12 @@ public class PaymentMapperTest {
     @Test
     public void convertToEntity_paymentRequestDtoNotNull_shouldReturnProperPaymentEntity() {
         PaymentRequestDto paymentRequestDto =
-                new PaymentRequestDto("testPaymentDescription", 12.3, Arrays.asList(1L, 2L));
+                new PaymentRequestDto("testPaymentDescription", Money.ofMinorUnits(1230), Arrays.asList(1L, 2L));
 
         PaymentEntity paymentEntityExpected = PaymentEntity.builder()
                 .groupId(2L)
                 .paymentDescription("testPaymentDescription")
-                .price(12.3)
+                .price(Money.ofMinorUnits(1230))
                 .coPayers(Arrays.asList(1L, 2L))
                 .creatorId(1L)
                 .timeStamp(LocalDateTime.of(2012, 1, 1, 10, 15, 3))
@@ -48,7 +49,7 @@ public class PaymentMapperTest {
         PaymentEntity paymentEntity = PaymentEntity.builder()
                 .groupId(2L)
                 .paymentDescription("testPaymentDescription")
-                .price(12.3)
+                .price(Money.ofMinorUnits(1230))
                 .coPayers(Arrays.asList(1L, 2L))
                 .creatorId(1L)
                 .timeStamp(LocalDateTime.of(2012, 1, 1, 10, 15, 3))
@@ -0,0 +1,106 @@
+package com.eleks.repository;
+
+import com.eleks.dto.Money;
+import com.eleks.entity.BalanceCheckpointEntity;
+import com.eleks.entity.CheckpointDebtEntity;
+import com.eleks.entity.GroupEntity;
+import com.eleks.entity.PaymentEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class BalanceCheckpointRepositoryTest {
+
+    @Autowired
+    private BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private GroupEntity groupEntity;
+
+    private PaymentEntity firstPaymentEntity, secondPaymentEntity, thirdPaymentEntity;
+
+    @Before
+    public void init() {
+        groupEntity = entityManager.persist(GroupEntity.builder()
+                .groupName("testGroupName")
+                .currency("USD")
+                .build());
+
+        firstPaymentEntity = entityManager.persist(buildPaymentEntity(1L));
+        secondPaymentEntity = entityManager.persist(buildPaymentEntity(2L));
+        thirdPaymentEntity = entityManager.persist(buildPaymentEntity(3L));
+    }
+
+    @Test
+    public void findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc_twoCheckpoints_shouldReturnLatestWithDebts() {
+        persistCheckpoint(firstPaymentEntity);
+        BalanceCheckpointEntity latestCheckpointEntity = persistCheckpoint(secondPaymentEntity);
+        entityManager.clear();
+
+        BalanceCheckpointEntity balanceCheckpointEntity = balanceCheckpointRepository
+                .findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc(groupEntity.getId()).get();
+
+        assertEquals(latestCheckpointEntity.getId(), balanceCheckpointEntity.getId());
+        assertEquals(1, balanceCheckpointEntity.getDebts().size());
+        assertEquals(Long.valueOf(500L), balanceCheckpointEntity.getDebts().get(0).getAmount());
+    }
+
+    @Test
+    public void deleteByGroupIdAndLastPaymentSequenceNumberFrom_paymentBetweenCheckpoints_shouldDeleteOnlyLaterCheckpoints() {
+        BalanceCheckpointEntity earlierCheckpointEntity = persistCheckpoint(firstPaymentEntity);
+        persistCheckpoint(thirdPaymentEntity);
+
+        balanceCheckpointRepository.deleteDebtsByGroupIdAndLastPaymentSequenceNumberFrom(groupEntity.getId(), secondPaymentEntity.getSequenceNumber());
+        balanceCheckpointRepository.deleteByGroupIdAndLastPaymentSequenceNumberFrom(groupEntity.getId(), secondPaymentEntity.getSequenceNumber());
+        entityManager.clear();
+
+        List<BalanceCheckpointEntity> balanceCheckpointEntities = balanceCheckpointRepository.findAll();
+
+        assertEquals(1, balanceCheckpointEntities.size());
+        assertEquals(earlierCheckpointEntity.getId(), balanceCheckpointEntities.get(0).getId());
+        assertFalse(balanceCheckpointEntities.get(0).getDebts().isEmpty());
+    }
+
+    private PaymentEntity buildPaymentEntity(Long sequenceNumber) {
+        return PaymentEntity.builder()
+                .paymentDescription("testPaymentDescription")
+                .price(Money.ofMinorUnits(1000))
+                .coPayers(Collections.singletonList(1L))
+                .creatorId(1L)
+                .timeStamp(LocalDateTime.now())
+                .groupId(groupEntity.getId())
+                .sequenceNumber(sequenceNumber)
+                .build();
+    }
+
+    private BalanceCheckpointEntity persistCheckpoint(PaymentEntity lastPaymentEntity) {
+        BalanceCheckpointEntity balanceCheckpointEntity = entityManager.persist(BalanceCheckpointEntity.builder()
+                .groupId(groupEntity.getId())
+                .lastPaymentSequenceNumber(lastPaymentEntity.getSequenceNumber())
+                .lastPaymentTimeStamp(lastPaymentEntity.getTimeStamp())
+                .debts(Collections.singletonList(CheckpointDebtEntity.builder()
+                        .creditorId(1L)
+                        .debtorId(2L)
+                        .amount(500L)
+                        .build()))
+                .build());
+        entityManager.flush();
+
+        return balanceCheckpointEntity;
+    }
+}
@@ -0,0 +1,121 @@
+package com.eleks.repository;
+
+import com.eleks.dto.MemberAmount;
+import com.eleks.entity.DebtEntity;
+import com.eleks.entity.GroupEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class DebtRepositoryTest {
+
+    @Autowired
+    private DebtRepository debtRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private GroupEntity groupEntity;
+
+    private DebtEntity firstDebtEntityExpected, secondDebtEntityExpected, thirdDebtEntityExpected;
+
+    @Before
+    public void init() {
+        groupEntity = entityManager.persist(GroupEntity.builder()
+                .groupName("testGroupName")
+                .currency("USD")
+                .build());
+
+        firstDebtEntityExpected = DebtEntity.builder()
+                .groupId(groupEntity.getId())
+                .creditorId(1L)
+                .debtorId(2L)
+                .amount(1050L)
+                .build();
+
+        secondDebtEntityExpected = DebtEntity.builder()
+                .groupId(groupEntity.getId())
+                .creditorId(3L)
+                .debtorId(1L)
+                .amount(300L)
+                .build();
+
+        thirdDebtEntityExpected = DebtEntity.builder()
+                .groupId(groupEntity.getId())
+                .creditorId(2L)
+                .debtorId(3L)
+                .amount(725L)
+                .build();
+
+        entityManager.persist(firstDebtEntityExpected);
+        entityManager.persist(secondDebtEntityExpected);
+        entityManager.persist(thirdDebtEntityExpected);
+    }
+
+    @Test
+    public void findByGroupIdAndParticipantId_userIsCreditorAndDebtor_shouldReturnBothDebts() {
+        assertEquals(Arrays.asList(firstDebtEntityExpected, secondDebtEntityExpected),
+                debtRepository.findByGroupIdAndParticipantId(groupEntity.getId(), 1L));
+    }
+
+    @Test
+    public void findByGroupIdAndParticipantId_anotherGroup_shouldReturnEmptyList() {
+        assertTrue(debtRepository.findByGroupIdAndParticipantId(77L, 1L).isEmpty());
+    }
+
+    @Test
+    public void findByGroupId_shouldReturnAllDebtsOfGroup() {
+        assertEquals(new HashSet<>(Arrays.asList(firstDebtEntityExpected, secondDebtEntityExpected, thirdDebtEntityExpected)),
+                new HashSet<>(debtRepository.findByGroupId(groupEntity.getId())));
+    }
+
+    @Test
+    public void findByGroupIdAndCreditorIdIn_shouldReturnDebtsOfProperCreditors() {
+        List<DebtEntity> debtEntitiesActual = debtRepository.findByGroupIdAndCreditorIdIn(groupEntity.getId(), Arrays.asList(2L, 3L));
+
+        assertEquals(new HashSet<>(Arrays.asList(secondDebtEntityExpected, thirdDebtEntityExpected)), new HashSet<>(debtEntitiesActual));
+    }
+
+    @Test
+    public void deleteByGroupId_shouldDeleteAllDebtsOfGroup() {
+        debtRepository.deleteByGroupId(groupEntity.getId());
+
+        assertEquals(Collections.emptyList(), debtRepository.findAll());
+    }
+
+    @Test
+    public void sumAmountsByCreditorAndDebtor_shouldReturnTotalsPerMember() {
+        entityManager.persist(DebtEntity.builder()
+                .groupId(groupEntity.getId())
+                .creditorId(1L)
+                .debtorId(3L)
+                .amount(125L)
+                .build());
+
+        assertEquals(new HashSet<>(Arrays.asList(
+                new MemberAmount(1L, 1175L),
+                new MemberAmount(2L, 725L),
+                new MemberAmount(3L, 300L))),
+                new HashSet<>(debtRepository.sumAmountsByCreditor(groupEntity.getId())));
+
+        assertEquals(new HashSet<>(Arrays.asList(
+                new MemberAmount(1L, 300L),
+                new MemberAmount(2L, 1050L),
+                new MemberAmount(3L, 850L))),
+                new HashSet<>(debtRepository.sumAmountsByDebtor(groupEntity.getId())));
+    }
+}
@@ -2,6 +2,7 @@ package com.eleks.repository;
 
 import com.eleks.entity.GroupEntity;
 import com.eleks.entity.UserEntity;
+import org.hibernate.Hibernate;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.junit4.SpringRunner;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Optional;
 
@@ -66,6 +68,38 @@ public class GroupRepositoryTest {
         assertFalse(groupRepository.findById(1L).isPresent());
     }
 
+    @Test
+    public void findWithMembersById_groupWithSeveralMembersExists_shouldReturnGroupWithLoadedMembersOnly() {
+        firstGroupEntityExpected.setMembers(Arrays.asList(firstUserEntityExpected, secondUserEntityExpected));
+        entityManager.persist(firstGroupEntityExpected);
+        entityManager.flush();
+        entityManager.clear();
+
+        Optional<GroupEntity> groupEntityActual = groupRepository.findWithMembersById(firstGroupEntityExpected.getId());
+
+        assertTrue(groupEntityActual.isPresent());
+        assertTrue(Hibernate.isInitialized(groupEntityActual.get().getMembers()));
+        assertFalse(Hibernate.isInitialized(groupEntityActual.get().getPayments()));
+        assertEquals(2, groupEntityActual.get().getMembers().size());
+    }
+
+    @Test
+    public void findWithMembersById_groupDoesNotExist_shouldReturnEmptyOptional() {
+        assertFalse(groupRepository.findWithMembersById(1L).isPresent());
+    }
+
+    @Test
+    public void findIdsByPaymentsSinceCheckpointGreaterThanEqual_groupsWithDifferentCounts_shouldReturnDueGroupsOnly() {
+        firstGroupEntityExpected.setPaymentsSinceCheckpoint(3L);
+        secondGroupEntityExpected.setPaymentsSinceCheckpoint(2L);
+        entityManager.persist(firstGroupEntityExpected);
+        entityManager.persist(secondGroupEntityExpected);
+
+        assertEquals(Collections.singletonList(firstGroupEntityExpected.getId()),
+                groupRepository.findIdsByPaymentsSinceCheckpointGreaterThanEqual(3L));
+        assertTrue(groupRepository.findIdsByPaymentsSinceCheckpointGreaterThanEqual(4L).isEmpty());
+    }
+
     @Test
     public void findByGroupName_groupExist_shouldReturnProperGroupByName() {
         entityManager.persist(firstGroupEntityExpected);
@@ -1,19 +1,28 @@
 package com.eleks.repository;
 
+import com.eleks.dto.Money;
 import com.eleks.entity.GroupEntity;
 import com.eleks.entity.PaymentEntity;
+import com.eleks.entity.UserEntity;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -33,18 +42,20 @@ public class PaymentRepositoryTest {
     public void init() {
         firstPaymentEntityExpected = PaymentEntity.builder()
                 .paymentDescription("testPaymentDescription")
-                .price(12.3)
+                .price(Money.ofMinorUnits(1230))
                 .coPayers(Arrays.asList(1L, 2L))
                 .creatorId(1L)
                 .timeStamp(LocalDateTime.of(2012, 1, 1, 10, 15, 3))
+                .sequenceNumber(1L)
                 .build();
 
         secondPaymentEntityExpected = PaymentEntity.builder()
                 .paymentDescription("testPaymentDescription")
-                .price(12.3)
+                .price(Money.ofMinorUnits(1230))
                 .coPayers(Arrays.asList(1L, 2L))
                 .creatorId(1L)
                 .timeStamp(LocalDateTime.of(2012, 1, 1, 10, 15, 3))
+                .sequenceNumber(2L)
                 .build();
     }
 
@@ -81,6 +92,160 @@ public class PaymentRepositoryTest {
         assertEquals(Collections.singletonList(firstPaymentEntityExpected), paymentRepository.findByGroupId(groupEntity.getId()));
     }
 
+    @Test
+    public void findByGroupIdAndId_paymentBelongsToGroup_shouldReturnProperPayment() {
+        Long groupId = persistGroup();
+        firstPaymentEntityExpected.setGroupId(groupId);
+        entityManager.persist(firstPaymentEntityExpected);
+
+        Optional<PaymentEntity> paymentEntityActual = paymentRepository.findByGroupIdAndId(groupId, firstPaymentEntityExpected.getId());
+
+        assertTrue(paymentEntityActual.isPresent());
+        assertEquals(firstPaymentEntityExpected, paymentEntityActual.get());
+    }
+
+    @Test
+    public void findByGroupIdAndId_paymentBelongsToAnotherGroup_shouldReturnEmptyOptional() {
+        Long groupId = persistGroup();
+        firstPaymentEntityExpected.setGroupId(groupId);
+        entityManager.persist(firstPaymentEntityExpected);
+
+        assertFalse(paymentRepository.findByGroupIdAndId(groupId + 1, firstPaymentEntityExpected.getId()).isPresent());
+    }
+
+    @Test
+    public void deleteByGroupIdAndId_paymentBelongsToGroup_shouldDeleteOnlyThisPaymentAndReturnOne() {
+        Long groupId = persistGroup();
+        firstPaymentEntityExpected.setGroupId(groupId);
+        secondPaymentEntityExpected.setGroupId(groupId);
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.persist(secondPaymentEntityExpected);
+        entityManager.flush();
+
+        paymentRepository.deleteCoPayersByGroupIdAndId(groupId, firstPaymentEntityExpected.getId());
+        assertEquals(1, paymentRepository.deleteByGroupIdAndId(groupId, firstPaymentEntityExpected.getId()));
+
+        entityManager.clear();
+
+        assertEquals(Collections.singletonList(secondPaymentEntityExpected.getId()), paymentRepository.findAll().stream()
+                .map(PaymentEntity::getId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void deleteByGroupIdAndId_paymentBelongsToAnotherGroup_shouldDeleteNothingAndReturnZero() {
+        Long groupId = persistGroup();
+        firstPaymentEntityExpected.setGroupId(groupId);
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.flush();
+
+        paymentRepository.deleteCoPayersByGroupIdAndId(groupId + 1, firstPaymentEntityExpected.getId());
+        assertEquals(0, paymentRepository.deleteByGroupIdAndId(groupId + 1, firstPaymentEntityExpected.getId()));
+        assertEquals(1, paymentRepository.count());
+    }
+
+    @Test
+    public void streamByGroupIdAndSequenceNumberGreaterThan_paymentsWithSeveralCoPayers_shouldReturnEveryPaymentOnceWithLoadedCoPayers() {
+        Long groupId = persistGroup();
+        firstPaymentEntityExpected.setGroupId(groupId);
+        secondPaymentEntityExpected.setGroupId(groupId);
+        secondPaymentEntityExpected.setCoPayers(Arrays.asList(2L, 3L, 4L));
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.persist(secondPaymentEntityExpected);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<PaymentEntity> paymentEntitiesActual;
+
+        try (Stream<PaymentEntity> paymentEntities = paymentRepository.streamByGroupIdAndSequenceNumberGreaterThan(groupId, 0L)) {
+            paymentEntitiesActual = paymentEntities
+                    .peek(entityManager.getEntityManager()::detach)
+                    .collect(Collectors.toList());
+        }
+
+        assertEquals(2, paymentEntitiesActual.size());
+        assertEquals(new HashSet<>(Arrays.asList(1L, 2L)), new HashSet<>(paymentEntitiesActual.get(0).getCoPayers()));
+        assertEquals(new HashSet<>(Arrays.asList(2L, 3L, 4L)), new HashSet<>(paymentEntitiesActual.get(1).getCoPayers()));
+    }
+
+    @Test
+    public void streamByGroupIdAndSequenceNumberGreaterThan_paymentWithLowerIdHasHigherSequenceNumber_shouldReturnItAfterSequenceNumber() {
+        Long groupId = persistGroup();
+        firstPaymentEntityExpected.setGroupId(groupId);
+        firstPaymentEntityExpected.setSequenceNumber(2L);
+        secondPaymentEntityExpected.setGroupId(groupId);
+        secondPaymentEntityExpected.setSequenceNumber(1L);
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.persist(secondPaymentEntityExpected);
+
+        try (Stream<PaymentEntity> paymentEntities = paymentRepository.streamByGroupIdAndSequenceNumberGreaterThan(groupId, 1L)) {
+            assertEquals(Collections.singletonList(firstPaymentEntityExpected), paymentEntities.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void findMaxSequenceNumberByGroupId_groupWithPayments_shouldReturnMaxSequenceNumberOfGroup() {
+        Long groupId = persistGroup();
+        firstPaymentEntityExpected.setGroupId(groupId);
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.persist(secondPaymentEntityExpected);
+
+        assertEquals(Long.valueOf(1L), paymentRepository.findMaxSequenceNumberByGroupId(groupId));
+        assertEquals(Long.valueOf(0L), paymentRepository.findMaxSequenceNumberByGroupId(groupId + 1));
+    }
+
+    @Test
+    public void countByGroupIdAndSequenceNumberGreaterThan_groupWithPayments_shouldCountOnlyPaymentsAfterSequenceNumber() {
+        Long groupId = persistGroup();
+        firstPaymentEntityExpected.setGroupId(groupId);
+        secondPaymentEntityExpected.setGroupId(groupId);
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.persist(secondPaymentEntityExpected);
+
+        assertEquals(Long.valueOf(2L), paymentRepository.countByGroupIdAndSequenceNumberGreaterThan(groupId, 0L));
+        assertEquals(Long.valueOf(1L), paymentRepository.countByGroupIdAndSequenceNumberGreaterThan(groupId, 1L));
+        assertEquals(Long.valueOf(0L), paymentRepository.countByGroupIdAndSequenceNumberGreaterThan(groupId + 1, 0L));
+    }
+
+    @Test
+    public void sumPaidSharesByCoPayer_paymentsWithSeveralCoPayers_shouldSplitEveryPriceBetweenCoPayersWhoAreMembers() {
+        GroupEntity groupEntity = entityManager.persist(GroupEntity.builder()
+                .groupName("testGroupNameFirst")
+                .currency("testCurrency")
+                .members(Arrays.asList(
+                        UserEntity.builder().userId(1L).build(),
+                        UserEntity.builder().userId(2L).build(),
+                        UserEntity.builder().userId(3L).build()))
+                .build());
+
+        firstPaymentEntityExpected.setGroupId(groupEntity.getId());
+        secondPaymentEntityExpected.setGroupId(groupEntity.getId());
+        secondPaymentEntityExpected.setPrice(Money.ofMinorUnits(501));
+        secondPaymentEntityExpected.setCoPayers(Arrays.asList(3L, 2L));
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.persist(secondPaymentEntityExpected);
+        entityManager.persist(PaymentEntity.builder()
+                .paymentDescription("testPaymentDescription")
+                .price(Money.ofMinorUnits(1000))
+                .coPayers(Arrays.asList(1L, 9L))
+                .creatorId(1L)
+                .timeStamp(LocalDateTime.of(2012, 1, 1, 10, 15, 3))
+                .groupId(groupEntity.getId())
+                .sequenceNumber(3L)
+                .build());
+        entityManager.flush();
+
+        Map<Long, Long> paidTotalsActual = paymentRepository.sumPaidSharesByCoPayer(groupEntity.getId()).stream()
+                .collect(Collectors.toMap(row -> ((Number) row[0]).longValue(), row -> ((Number) row[1]).longValue()));
+
+        Map<Long, Long> paidTotalsExpected = new HashMap<>();
+        paidTotalsExpected.put(1L, 1615L);
+        paidTotalsExpected.put(2L, 866L);
+        paidTotalsExpected.put(3L, 250L);
+
+        assertEquals(paidTotalsExpected, paidTotalsActual);
+    }
+
     @Test
     public void findByGroupId_paymentWithGroupIdDoNotExist_shouldReturnListOfProperPayments() {
         entityManager.persist(firstPaymentEntityExpected);
@@ -89,6 +254,66 @@ public class PaymentRepositoryTest {
         assertTrue(paymentRepository.findByGroupId(77L).isEmpty());
     }
 
+    @Test
+    public void streamByGroupIdAndTimeStampLessThanEqual_paymentsBeforeAndAfterAsOf_shouldReturnOnlyPaymentsBeforeAsOf() {
+        GroupEntity groupEntity = entityManager.persist(GroupEntity.builder()
+                .groupName("testGroupNameFirst")
+                .currency("testCurrency")
+                .build());
+
+        firstPaymentEntityExpected.setGroupId(groupEntity.getId());
+        secondPaymentEntityExpected.setGroupId(groupEntity.getId());
+        secondPaymentEntityExpected.setTimeStamp(LocalDateTime.of(2012, 2, 1, 10, 15, 3));
+
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.persist(secondPaymentEntityExpected);
+
+        assertEquals(Collections.singletonList(firstPaymentEntityExpected),
+                paymentRepository.streamByGroupIdAndTimeStampLessThanEqual(groupEntity.getId(), LocalDateTime.of(2012, 1, 31, 23, 59, 59))
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void streamByGroupIdAndSequenceNumberGreaterThanAndTimeStampBetween_paymentsWithSameTimeStamp_shouldReturnOnlyPaymentsAfterSequenceNumber() {
+        GroupEntity groupEntity = entityManager.persist(GroupEntity.builder()
+                .groupName("testGroupNameFirst")
+                .currency("testCurrency")
+                .build());
+
+        firstPaymentEntityExpected.setGroupId(groupEntity.getId());
+        secondPaymentEntityExpected.setGroupId(groupEntity.getId());
+
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.persist(secondPaymentEntityExpected);
+
+        assertEquals(Collections.singletonList(secondPaymentEntityExpected),
+                paymentRepository.streamByGroupIdAndSequenceNumberGreaterThanAndTimeStampBetween(groupEntity.getId(),
+                        firstPaymentEntityExpected.getSequenceNumber(),
+                        LocalDateTime.of(2012, 1, 1, 10, 15, 3), LocalDateTime.of(2012, 1, 31, 23, 59, 59)).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void findByGroupIdAfterKey_paymentsWithSameTimeStamp_shouldPageThroughAllPaymentsOnce() {
+        GroupEntity groupEntity = entityManager.persist(GroupEntity.builder()
+                .groupName("testGroupNameFirst")
+                .currency("testCurrency")
+                .build());
+
+        firstPaymentEntityExpected.setGroupId(groupEntity.getId());
+        secondPaymentEntityExpected.setGroupId(groupEntity.getId());
+
+        entityManager.persist(firstPaymentEntityExpected);
+        entityManager.persist(secondPaymentEntityExpected);
+
+        assertEquals(Collections.singletonList(firstPaymentEntityExpected),
+                paymentRepository.findByGroupIdOrderByTimeStampAscIdAsc(groupEntity.getId(), new PageRequest(0, 1)));
+        assertEquals(Collections.singletonList(secondPaymentEntityExpected),
+                paymentRepository.findByGroupIdAfterKey(groupEntity.getId(), firstPaymentEntityExpected.getTimeStamp(),
+                        firstPaymentEntityExpected.getId(), new PageRequest(0, 1)));
+        assertTrue(paymentRepository.findByGroupIdAfterKey(groupEntity.getId(), secondPaymentEntityExpected.getTimeStamp(),
+                secondPaymentEntityExpected.getId(), new PageRequest(0, 1)).isEmpty());
+    }
+
     @Test
     public void delete_paymentExistsBeforeDeletion_shouldDeleteProperPayment() {
         entityManager.persist(secondPaymentEntityExpected);
@@ -116,4 +341,15 @@ public class PaymentRepositoryTest {
         assertEquals(secondPaymentEntityExpected, secondPaymentEntityActual);
         assertEquals(2, paymentRepository.count());
     }
+
+    private Long persistGroup() {
+        GroupEntity groupEntity = GroupEntity.builder()
+                .groupName("testGroupNameFirst")
+                .currency("testCurrency")
+                .build();
+
+        entityManager.persist(groupEntity);
+
+        return groupEntity.getId();
+    }
 }
@@ -0,0 +1,217 @@
+package com.eleks.service;
+
+import com.eleks.dto.Money;
+import com.eleks.entity.BalanceCheckpointEntity;
+import com.eleks.entity.CheckpointDebtEntity;
+import com.eleks.entity.GroupEntity;
+import com.eleks.entity.PaymentEntity;
+import com.eleks.entity.UserEntity;
+import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.repository.BalanceCheckpointRepository;
+import com.eleks.repository.GroupRepository;
+import com.eleks.repository.PaymentRepository;
+import com.eleks.service.impl.BalanceCheckpointServiceImpl;
+import com.eleks.util.BalanceFoldUtil;
+import com.eleks.util.BalanceKernel;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BalanceCheckpointServiceTest {
+
+    @Mock
+    private BalanceCheckpointRepository balanceCheckpointRepositoryMock;
+
+    @Mock
+    private GroupRepository groupRepositoryMock;
+
+    @Mock
+    private PaymentRepository paymentRepositoryMock;
+
+    @Mock
+    private EntityManager entityManagerMock;
+
+    @Spy
+    private BalanceFoldUtil balanceFoldUtil = new BalanceFoldUtil(2, 1, 2);
+
+    @InjectMocks
+    private BalanceCheckpointServiceImpl balanceCheckpointService;
+
+    private List<Long> groupMembersIds;
+
+    private List<PaymentEntity> paymentEntitiesExpected;
+
+    @Before
+    public void init() {
+        groupMembersIds = Arrays.asList(1L, 2L, 3L, 4L, 5L);
+
+        //pooled ids of several instances don't follow order in which payments were created
+        paymentEntitiesExpected = Arrays.asList(
+                PaymentEntity.builder().id(51L).sequenceNumber(1L).groupId(3L).coPayers(Arrays.asList(1L, 2L, 4L)).price(Money.ofMinorUnits(45025))
+                        .timeStamp(LocalDateTime.of(2019, 1, 1, 10, 0)).build(),
+                PaymentEntity.builder().id(2L).sequenceNumber(2L).groupId(3L).coPayers(Arrays.asList(2L, 4L)).price(Money.ofMinorUnits(50550))
+                        .timeStamp(LocalDateTime.of(2019, 1, 2, 10, 0)).build(),
+                PaymentEntity.builder().id(52L).sequenceNumber(3L).groupId(3L).coPayers(Collections.singletonList(4L)).price(Money.ofMinorUnits(30000))
+                        .timeStamp(LocalDateTime.of(2019, 1, 3, 10, 0)).build(),
+                PaymentEntity.builder().id(3L).sequenceNumber(4L).groupId(3L).coPayers(Arrays.asList(1L, 3L, 4L, 5L)).price(Money.ofMinorUnits(150000))
+                        .timeStamp(LocalDateTime.of(2019, 1, 4, 10, 0)).build());
+    }
+
+    @Test
+    public void retrieveBalanceKernel_checkpointAfterSecondPayment_shouldReplayOnlyTailAndEqualFullReplay() {
+        BalanceKernel checkpointKernel = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntitiesExpected.subList(0, 2).forEach(checkpointKernel::fold);
+
+        List<CheckpointDebtEntity> checkpointDebtEntities = new ArrayList<>();
+        checkpointKernel.debts().forEach((creditorId, debtorsAmounts) -> debtorsAmounts.forEach((debtorId, amount) ->
+                checkpointDebtEntities.add(CheckpointDebtEntity.builder().creditorId(creditorId).debtorId(debtorId).amount(amount).build())));
+
+        when(balanceCheckpointRepositoryMock.findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc(3L)).thenReturn(Optional.of(
+                BalanceCheckpointEntity.builder().groupId(3L).lastPaymentSequenceNumber(2L).debts(checkpointDebtEntities).build()));
+        when(paymentRepositoryMock.streamByGroupIdAndSequenceNumberGreaterThan(3L, 2L)).thenReturn(paymentEntitiesExpected.subList(2, 4).stream());
+
+        BalanceKernel balanceKernelExpected = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntitiesExpected.forEach(balanceKernelExpected::fold);
+
+        assertEquals(balanceKernelExpected.debts(), balanceCheckpointService.retrieveBalanceKernel(3L, groupMembersIds).debts());
+    }
+
+    @Test
+    public void retrieveBalanceKernel_asOfWithoutCheckpoint_shouldFoldPaymentsUpToAsOf() {
+        LocalDateTime asOf = LocalDateTime.of(2019, 1, 2, 23, 59, 59);
+
+        when(balanceCheckpointRepositoryMock.findFirstByGroupIdAndLastPaymentTimeStampLessThanEqualOrderByLastPaymentSequenceNumberDesc(3L, asOf))
+                .thenReturn(Optional.empty());
+        when(paymentRepositoryMock.streamByGroupIdAndTimeStampLessThanEqual(3L, asOf)).thenReturn(paymentEntitiesExpected.subList(0, 2).stream());
+
+        BalanceKernel balanceKernelExpected = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntitiesExpected.subList(0, 2).forEach(balanceKernelExpected::fold);
+
+        assertEquals(balanceKernelExpected.debts(), balanceCheckpointService.retrieveBalanceKernel(3L, groupMembersIds, asOf).debts());
+    }
+
+    @Test
+    public void retrieveBalanceKernel_asOfAfterCheckpoint_shouldFoldOnlyWindowAfterCheckpoint() {
+        LocalDateTime asOf = LocalDateTime.of(2019, 1, 3, 23, 59, 59);
+
+        BalanceKernel checkpointKernel = BalanceKernel.withDebts(groupMembersIds);
+        checkpointKernel.fold(paymentEntitiesExpected.get(0));
+
+        List<CheckpointDebtEntity> checkpointDebtEntities = new ArrayList<>();
+        checkpointKernel.debts().forEach((creditorId, debtorsAmounts) -> debtorsAmounts.forEach((debtorId, amount) ->
+                checkpointDebtEntities.add(CheckpointDebtEntity.builder().creditorId(creditorId).debtorId(debtorId).amount(amount).build())));
+
+        when(balanceCheckpointRepositoryMock.findFirstByGroupIdAndLastPaymentTimeStampLessThanEqualOrderByLastPaymentSequenceNumberDesc(3L, asOf))
+                .thenReturn(Optional.of(BalanceCheckpointEntity.builder()
+                        .groupId(3L)
+                        .lastPaymentSequenceNumber(1L)
+                        .lastPaymentTimeStamp(LocalDateTime.of(2019, 1, 1, 10, 0))
+                        .debts(checkpointDebtEntities)
+                        .build()));
+        when(paymentRepositoryMock.streamByGroupIdAndSequenceNumberGreaterThanAndTimeStampBetween(3L, 1L, LocalDateTime.of(2019, 1, 1, 10, 0), asOf))
+                .thenReturn(paymentEntitiesExpected.subList(1, 3).stream());
+
+        BalanceKernel balanceKernelExpected = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntitiesExpected.subList(0, 3).forEach(balanceKernelExpected::fold);
+
+        assertEquals(balanceKernelExpected.debts(), balanceCheckpointService.retrieveBalanceKernel(3L, groupMembersIds, asOf).debts());
+        verify(paymentRepositoryMock, never()).streamByGroupIdAndTimeStampLessThanEqual(3L, asOf);
+    }
+
+    @Test
+    public void writeCheckpoint_groupWithoutCheckpoint_shouldSaveCheckpointOfAllPayments() {
+        GroupEntity groupEntity = GroupEntity.builder()
+                .id(3L)
+                .paymentsSinceCheckpoint(4L)
+                .members(Arrays.asList(
+                        UserEntity.builder().userId(1L).build(),
+                        UserEntity.builder().userId(2L).build(),
+                        UserEntity.builder().userId(3L).build(),
+                        UserEntity.builder().userId(4L).build(),
+                        UserEntity.builder().userId(5L).build()))
+                .build();
+
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntity));
+        when(balanceCheckpointRepositoryMock.findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc(3L)).thenReturn(Optional.empty());
+        when(paymentRepositoryMock.streamByGroupIdAndSequenceNumberGreaterThan(3L, 0L)).thenReturn(paymentEntitiesExpected.stream());
+
+        balanceCheckpointService.writeCheckpoint(3L);
+
+        ArgumentCaptor<BalanceCheckpointEntity> balanceCheckpointEntityCaptor = ArgumentCaptor.forClass(BalanceCheckpointEntity.class);
+        verify(balanceCheckpointRepositoryMock).save(balanceCheckpointEntityCaptor.capture());
+
+        BalanceCheckpointEntity balanceCheckpointEntity = balanceCheckpointEntityCaptor.getValue();
+        BalanceKernel balanceKernel = BalanceKernel.withDebts(groupMembersIds);
+        balanceCheckpointEntity.getDebts().forEach(checkpointDebtEntity ->
+                balanceKernel.addDebt(checkpointDebtEntity.getCreditorId(), checkpointDebtEntity.getDebtorId(), checkpointDebtEntity.getAmount()));
+
+        BalanceKernel balanceKernelExpected = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntitiesExpected.forEach(balanceKernelExpected::fold);
+
+        verify(entityManagerMock, times(4)).detach(any(PaymentEntity.class));
+        assertEquals(Long.valueOf(4L), balanceCheckpointEntity.getLastPaymentSequenceNumber());
+        assertEquals(LocalDateTime.of(2019, 1, 4, 10, 0), balanceCheckpointEntity.getLastPaymentTimeStamp());
+        assertEquals(balanceKernelExpected.debts(), balanceKernel.debts());
+        assertEquals(Long.valueOf(0L), groupEntity.getPaymentsSinceCheckpoint());
+    }
+
+    @Test
+    public void writeCheckpoint_noPaymentsAfterLatestCheckpoint_shouldNotSaveCheckpoint() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(GroupEntity.builder().id(3L).build()));
+        when(balanceCheckpointRepositoryMock.findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc(3L)).thenReturn(Optional.of(
+                BalanceCheckpointEntity.builder().groupId(3L).lastPaymentSequenceNumber(4L).build()));
+        when(paymentRepositoryMock.streamByGroupIdAndSequenceNumberGreaterThan(3L, 4L)).thenReturn(Stream.empty());
+
+        balanceCheckpointService.writeCheckpoint(3L);
+
+        verify(balanceCheckpointRepositoryMock, never()).save(any(BalanceCheckpointEntity.class));
+    }
+
+    @Test
+    public void writeCheckpoint_groupDoesNotExist_shouldThrowResourceNotFoundException() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> balanceCheckpointService.writeCheckpoint(3L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Group entity with id 3 doesn't exist");
+    }
+
+    @Test
+    public void invalidateCheckpoints_deletedPayment_shouldDeleteCheckpointsWhichIncludeIt() {
+        GroupEntity groupEntity = GroupEntity.builder().id(3L).paymentsSinceCheckpoint(1L).build();
+
+        when(groupRepositoryMock.findOne(3L)).thenReturn(groupEntity);
+        when(balanceCheckpointRepositoryMock.findFirstByGroupIdOrderByLastPaymentSequenceNumberDesc(3L)).thenReturn(Optional.of(
+                BalanceCheckpointEntity.builder().groupId(3L).lastPaymentSequenceNumber(1L).build()));
+        when(paymentRepositoryMock.countByGroupIdAndSequenceNumberGreaterThan(3L, 1L)).thenReturn(2L);
+
+        balanceCheckpointService.invalidateCheckpoints(3L, 2L);
+
+        verify(balanceCheckpointRepositoryMock).deleteDebtsByGroupIdAndLastPaymentSequenceNumberFrom(3L, 2L);
+        verify(balanceCheckpointRepositoryMock).deleteByGroupIdAndLastPaymentSequenceNumberFrom(3L, 2L);
+        assertEquals(Long.valueOf(2L), groupEntity.getPaymentsSinceCheckpoint());
+    }
+
+    @Test
+    public void retrieveGroupIdsDueForCheckpoint_shouldReturnGroupsWithEnoughPaymentsSinceCheckpoint() {
+        when(groupRepositoryMock.findIdsByPaymentsSinceCheckpointGreaterThanEqual(1000L)).thenReturn(Arrays.asList(3L, 5L));
+
+        assertEquals(Arrays.asList(3L, 5L), balanceCheckpointService.retrieveGroupIdsDueForCheckpoint(1000L));
+    }
+}
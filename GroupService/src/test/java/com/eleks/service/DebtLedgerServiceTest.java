@@ -0,0 +1,184 @@
+package com.eleks.service;
+
+import com.eleks.dto.Money;
+import com.eleks.entity.DebtEntity;
+import com.eleks.entity.GroupEntity;
+import com.eleks.entity.PaymentEntity;
+import com.eleks.entity.UserEntity;
+import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.repository.DebtRepository;
+import com.eleks.repository.GroupRepository;
+import com.eleks.service.impl.DebtLedgerServiceImpl;
+import com.eleks.util.BalanceKernel;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DebtLedgerServiceTest {
+
+    @Mock
+    private DebtRepository debtRepositoryMock;
+
+    @Mock
+    private GroupRepository groupRepositoryMock;
+
+    @Mock
+    private BalanceCheckpointService balanceCheckpointServiceMock;
+
+    @InjectMocks
+    private DebtLedgerServiceImpl debtLedgerService;
+
+    @Captor
+    private ArgumentCaptor<List<DebtEntity>> debtEntitiesCaptor;
+
+    private GroupEntity groupEntityExpected;
+
+    private List<PaymentEntity> paymentEntitiesExpected;
+
+    @Before
+    public void init() {
+        groupEntityExpected = GroupEntity.builder()
+                .id(3L)
+                .groupName("testGroupName")
+                .currency("USD")
+                .members(Arrays.asList(
+                        UserEntity.builder().userId(1L).build(),
+                        UserEntity.builder().userId(2L).build(),
+                        UserEntity.builder().userId(3L).build(),
+                        UserEntity.builder().userId(4L).build(),
+                        UserEntity.builder().userId(5L).build()))
+                .build();
+
+        paymentEntitiesExpected = Arrays.asList(
+                PaymentEntity.builder().groupId(3L).coPayers(Arrays.asList(1L, 2L, 4L)).price(Money.ofMinorUnits(45025)).build(),
+                PaymentEntity.builder().groupId(3L).coPayers(Arrays.asList(2L, 4L)).price(Money.ofMinorUnits(50550)).build(),
+                PaymentEntity.builder().groupId(3L).coPayers(Collections.singletonList(4L)).price(Money.ofMinorUnits(30000)).build(),
+                PaymentEntity.builder().groupId(3L).coPayers(Arrays.asList(1L, 3L, 4L, 5L)).price(Money.ofMinorUnits(150000)).build());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void rebuildLedger_groupWith4Payments_shouldSaveDebtsWhichSumUpToProperMemberBalances() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
+        BalanceKernel balanceKernel = BalanceKernel.withDebts(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+        paymentEntitiesExpected.forEach(balanceKernel::fold);
+        when(balanceCheckpointServiceMock.retrieveBalanceKernel(3L, Arrays.asList(1L, 2L, 3L, 4L, 5L))).thenReturn(balanceKernel);
+
+        debtLedgerService.rebuildLedger(3L);
+
+        verify(debtRepositoryMock).deleteByGroupId(3L);
+        verify(debtRepositoryMock).save(debtEntitiesCaptor.capture());
+
+        List<DebtEntity> debtEntitiesOfSecondMember = debtEntitiesCaptor.getValue().stream()
+                .filter(debtEntity -> debtEntity.getCreditorId().equals(2L) || debtEntity.getDebtorId().equals(2L))
+                .collect(Collectors.toList());
+
+        when(debtRepositoryMock.findByGroupIdAndParticipantId(3L, 2L)).thenReturn(debtEntitiesOfSecondMember);
+
+        Map<Long, BigDecimal> memberBalancesExpected = new HashMap<>();
+        memberBalancesExpected.put(1L, new BigDecimal("-24.45"));
+        memberBalancesExpected.put(3L, new BigDecimal("5.57"));
+        memberBalancesExpected.put(4L, new BigDecimal("-135.00"));
+        memberBalancesExpected.put(5L, new BigDecimal("5.56"));
+
+        assertEquals(memberBalancesExpected, debtLedgerService.retrieveMemberBalances(3L, 2L));
+    }
+
+    @Test
+    public void rebuildLedger_groupDoesNotExist_shouldThrowResourceNotFoundException() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> debtLedgerService.rebuildLedger(3L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Group entity with id 3 doesn't exist");
+    }
+
+    @Test
+    public void registerPayment_existingDebtBetweenMembers_shouldIncreaseDebtAmount() {
+        DebtEntity debtEntity = DebtEntity.builder().groupId(3L).creditorId(2L).debtorId(1L).amount(1000L).build();
+
+        when(debtRepositoryMock.findByGroupIdAndCreditorIdIn(3L, Collections.singleton(2L))).thenReturn(Collections.singletonList(debtEntity));
+
+        debtLedgerService.registerPayment(PaymentEntity.builder().groupId(3L).coPayers(Collections.singletonList(2L)).price(Money.ofMinorUnits(10000)).build(),
+                Arrays.asList(1L, 2L));
+
+        assertEquals(Long.valueOf(6000), debtEntity.getAmount());
+        verify(debtRepositoryMock).save(Collections.singletonList(debtEntity));
+    }
+
+    @Test
+    public void registerPayments_paymentsOfSameCreditor_shouldReadAndSaveLedgerOnce() {
+        DebtEntity debtEntity = DebtEntity.builder().groupId(3L).creditorId(2L).debtorId(1L).amount(1000L).build();
+
+        when(debtRepositoryMock.findByGroupIdAndCreditorIdIn(3L, Collections.singleton(2L))).thenReturn(Collections.singletonList(debtEntity));
+
+        debtLedgerService.registerPayments(Arrays.asList(
+                PaymentEntity.builder().id(1L).groupId(3L).coPayers(Collections.singletonList(2L)).price(Money.ofMinorUnits(10000)).build(),
+                PaymentEntity.builder().id(2L).groupId(3L).coPayers(Collections.singletonList(2L)).price(Money.ofMinorUnits(10000)).build()),
+                Arrays.asList(1L, 2L));
+
+        assertEquals(Long.valueOf(11000), debtEntity.getAmount());
+        verify(debtRepositoryMock).findByGroupIdAndCreditorIdIn(3L, Collections.singleton(2L));
+        verify(debtRepositoryMock).save(Collections.singletonList(debtEntity));
+    }
+
+    @Test
+    public void unregisterPayment_existingDebtBetweenMembers_shouldDecreaseDebtAmount() {
+        DebtEntity debtEntity = DebtEntity.builder().groupId(3L).creditorId(2L).debtorId(1L).amount(6000L).build();
+
+        when(debtRepositoryMock.findByGroupIdAndCreditorIdIn(3L, Collections.singleton(2L))).thenReturn(Collections.singletonList(debtEntity));
+
+        debtLedgerService.unregisterPayment(PaymentEntity.builder().groupId(3L).coPayers(Collections.singletonList(2L)).price(Money.ofMinorUnits(10000)).build(),
+                Arrays.asList(1L, 2L));
+
+        assertEquals(Long.valueOf(1000), debtEntity.getAmount());
+        verify(debtRepositoryMock).save(Collections.singletonList(debtEntity));
+    }
+
+    @Test
+    public void registerPayment_allMembersAreCoPayers_shouldNotTouchLedger() {
+        debtLedgerService.registerPayment(PaymentEntity.builder().groupId(3L).coPayers(Arrays.asList(1L, 2L)).price(Money.ofMinorUnits(10000)).build(),
+                Arrays.asList(1L, 2L));
+
+        verify(debtRepositoryMock, never()).save(anyListOf(DebtEntity.class));
+    }
+
+    @Test
+    public void retrieveMemberBalances_noDebtsInLedger_shouldReturnEmptyMap() {
+        when(debtRepositoryMock.findByGroupIdAndParticipantId(3L, 2L)).thenReturn(Collections.emptyList());
+
+        assertTrue(debtLedgerService.retrieveMemberBalances(3L, 2L).isEmpty());
+    }
+
+    @Test
+    public void retrieveAllMemberBalances_debtsInBothDirections_shouldReturnNonZeroPairwiseBalancesOfEveryMember() {
+        when(debtRepositoryMock.findByGroupId(3L)).thenReturn(Arrays.asList(
+                DebtEntity.builder().groupId(3L).creditorId(1L).debtorId(2L).amount(1000L).build(),
+                DebtEntity.builder().groupId(3L).creditorId(2L).debtorId(1L).amount(250L).build(),
+                DebtEntity.builder().groupId(3L).creditorId(3L).debtorId(1L).amount(500L).build(),
+                DebtEntity.builder().groupId(3L).creditorId(1L).debtorId(3L).amount(500L).build()));
+
+        Map<Long, Map<Long, BigDecimal>> allMemberBalancesExpected = new HashMap<>();
+        allMemberBalancesExpected.put(1L, Collections.singletonMap(2L, new BigDecimal("7.50")));
+        allMemberBalancesExpected.put(2L, Collections.singletonMap(1L, new BigDecimal("-7.50")));
+        allMemberBalancesExpected.put(3L, Collections.emptyMap());
+
+        assertEquals(allMemberBalancesExpected, debtLedgerService.retrieveAllMemberBalances(3L));
+    }
+}
@@ -7,9 +7,12 @@ import com.eleks.entity.PaymentEntity;
 import com.eleks.entity.UserEntity;
 import com.eleks.exception.InvalidRequestException;
 import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.exception.UserServiceException;
 import com.eleks.mapper.GroupMapper;
 import com.eleks.repository.GroupRepository;
+import com.eleks.repository.PaymentRepository;
 import com.eleks.service.impl.GroupServiceImpl;
+import com.eleks.util.BalanceKernel;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -18,13 +21,19 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,9 +46,18 @@ public class GroupServiceTest {
     @Mock
     private GroupRepository groupRepositoryMock;
 
+    @Mock
+    private PaymentRepository paymentRepositoryMock;
+
     @Mock
     private UserClient userClient;
 
+    @Mock
+    private DebtLedgerService debtLedgerServiceMock;
+
+    @Mock
+    private BalanceCheckpointService balanceCheckpointServiceMock;
+
     @InjectMocks
     private GroupServiceImpl groupService;
 
@@ -64,7 +82,7 @@ public class GroupServiceTest {
 
     @Test
     public void retrieveGroup_groupExistInDb_shouldReturnGroupDtoWithProperId() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.of(groupEntityExpected));
         when(groupMapperMock.convertToDto(groupEntityExpected)).thenReturn(groupResponseDtoExpected);
 
         assertEquals(groupResponseDtoExpected, groupService.retrieveGroup(3L));
@@ -72,7 +90,7 @@ public class GroupServiceTest {
 
     @Test
     public void retrieveGroup_groupIsNotFoundInDbById_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.empty());
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> groupService.retrieveGroup(3L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -81,16 +99,18 @@ public class GroupServiceTest {
 
     @Test
     public void deleteGroup_groupExistInDb_shouldInvokeRepositoryMethodDeleteOnce() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(new GroupEntity()));
+        when(groupRepositoryMock.exists(3L)).thenReturn(true);
 
         groupService.deleteGroup(3L);
 
+        verify(debtLedgerServiceMock).deleteLedger(3L);
+        verify(balanceCheckpointServiceMock).deleteCheckpoints(3L);
         verify(groupRepositoryMock).delete(3L);
     }
 
     @Test
     public void deleteGroup_groupIsNotFoundInDbById_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.empty());
+        when(groupRepositoryMock.exists(3L)).thenReturn(false);
 
         assertThatThrownBy(() -> groupService.deleteGroup(3L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -99,18 +119,21 @@ public class GroupServiceTest {
 
     @Test
     public void updateGroup_groupWithProperIdExists_shouldInvokeRepositoryMethodSaveOnce() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(new GroupEntity()));
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
         when(groupMapperMock.convertToEntity(3L, groupRequestDtoExpected)).thenReturn(groupEntityExpected);
-        when(userClient.areUserIdsValid(new UsersBulkRequestDto(groupRequestDtoExpected.getMembers()))).thenReturn(true);
+        when(userClient.areUserIdsValidAsync(new UsersBulkRequestDto(groupRequestDtoExpected.getMembers())))
+                .thenReturn(CompletableFuture.completedFuture(true));
 
         groupService.updateGroup(3L, groupRequestDtoExpected);
 
         verify(groupRepositoryMock).save(groupEntityExpected);
+        verify(balanceCheckpointServiceMock).deleteCheckpoints(3L);
+        verify(debtLedgerServiceMock).rebuildLedger(3L);
     }
 
     @Test
     public void updateGroup_groupWithProperIdDoesNotExists_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.empty());
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> groupService.updateGroup(3L, new GroupRequestDto()))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -119,8 +142,9 @@ public class GroupServiceTest {
 
     @Test
     public void updateGroup_membersIdsAreNotValid_shouldThrowInvalidRequestException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(new GroupEntity()));
-        when(userClient.areUserIdsValid(new UsersBulkRequestDto(groupRequestDtoExpected.getMembers()))).thenReturn(false);
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(userClient.areUserIdsValidAsync(new UsersBulkRequestDto(groupRequestDtoExpected.getMembers())))
+                .thenReturn(CompletableFuture.completedFuture(false));
 
         assertThatThrownBy(() -> groupService.updateGroup(3L, groupRequestDtoExpected))
                 .isInstanceOf(InvalidRequestException.class)
@@ -139,8 +163,8 @@ public class GroupServiceTest {
     @Test
     public void createGroup_membersIdsAreNotValid_shouldThrowInvalidRequestException() {
         when(groupRepositoryMock.findByGroupName(groupRequestDtoExpected.getGroupName())).thenReturn(Optional.empty());
-        when(userClient.areUserIdsValid(new UsersBulkRequestDto(groupRequestDtoExpected.getMembers())))
-                .thenReturn(false);
+        when(userClient.areUserIdsValidAsync(new UsersBulkRequestDto(groupRequestDtoExpected.getMembers())))
+                .thenReturn(CompletableFuture.completedFuture(false));
 
         assertThatThrownBy(() -> groupService.createGroup(groupRequestDtoExpected))
                 .isInstanceOf(InvalidRequestException.class)
@@ -150,7 +174,8 @@ public class GroupServiceTest {
     @Test
     public void createGroup_membersIdsAreValid_shouldInvokeRepositoryMethodSaveOnce() {
         when(groupRepositoryMock.findByGroupName(groupRequestDtoExpected.getGroupName())).thenReturn(Optional.empty());
-        when(userClient.areUserIdsValid(new UsersBulkRequestDto(groupRequestDtoExpected.getMembers()))).thenReturn(true);
+        when(userClient.areUserIdsValidAsync(new UsersBulkRequestDto(groupRequestDtoExpected.getMembers())))
+                .thenReturn(CompletableFuture.completedFuture(true));
         when(groupMapperMock.convertToEntity(groupRequestDtoExpected)).thenReturn(groupEntityExpected);
 
         groupService.createGroup(groupRequestDtoExpected);
@@ -160,49 +185,29 @@ public class GroupServiceTest {
 
     @Test
     public void retrieveGroupMemberOwings_groupWithProperIdDoesNotExist_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.empty());
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> groupService.retrieveGroupMemberOwings(3L, 2L))
+        assertThatThrownBy(() -> groupService.retrieveGroupMemberOwings(3L, 2L, null))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Group entity with id 3 doesn't exist");
     }
 
     @Test
     public void retrieveGroupMemberOwings_userWithProperIdIsNotMemberOfGroup_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.of(groupEntityExpected));
 
         groupEntityExpected.setMembers(Arrays.asList(
                 UserEntity.builder().userId(1L).build(),
                 UserEntity.builder().userId(3L).build(),
                 UserEntity.builder().userId(4L).build()));
 
-        assertThatThrownBy(() -> groupService.retrieveGroupMemberOwings(3L, 2L))
+        assertThatThrownBy(() -> groupService.retrieveGroupMemberOwings(3L, 2L, null))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("User with 2 isn't member of group");
     }
 
     @Test
-    public void retrieveGroupMemberOwings_groupIdAndUserIdValidParamsWith4Payments_shouldReturnProperListOfUserStatusResponses() {
-        PaymentEntity paymentEntityFirst = PaymentEntity.builder()
-                .coPayers(Arrays.asList(1L, 2L, 4L))
-                .price(450.25)
-                .build();
-
-        PaymentEntity paymentEntitySecond = PaymentEntity.builder()
-                .coPayers(Arrays.asList(2L, 4L))
-                .price(505.5)
-                .build();
-
-        PaymentEntity paymentEntityThird = PaymentEntity.builder()
-                .coPayers(Collections.singletonList(4L))
-                .price(300.0)
-                .build();
-
-        PaymentEntity paymentEntityFourth = PaymentEntity.builder()
-                .coPayers(Arrays.asList(1L, 3L, 4L, 5L))
-                .price(1500.0)
-                .build();
-
+    public void retrieveGroupMemberOwings_groupIdAndUserIdValidParamsWithLedgerBalances_shouldReturnProperListOfUserStatusResponses() {
         groupEntityExpected.setMembers(Arrays.asList(
                 UserEntity.builder().userId(1L).build(),
                 UserEntity.builder().userId(2L).build(),
@@ -210,54 +215,166 @@ public class GroupServiceTest {
                 UserEntity.builder().userId(4L).build(),
                 UserEntity.builder().userId(5L).build()));
 
+        Map<Long, BigDecimal> memberBalances = new HashMap<>();
+        memberBalances.put(1L, new BigDecimal("-24.45"));
+        memberBalances.put(3L, new BigDecimal("5.57"));
+        memberBalances.put(4L, new BigDecimal("-135.00"));
+        memberBalances.put(5L, new BigDecimal("5.56"));
+
         List<UserStatusResponse> userStatusResponsesExpected = Arrays.asList(
-                UserStatusResponse.builder().userId(1L).userName("testFirstName").currency("USD").value(new BigDecimal("-24.450")).build(),
-                UserStatusResponse.builder().userId(3L).userName("testThirdName").currency("USD").value(new BigDecimal("5.567")).build(),
-                UserStatusResponse.builder().userId(4L).userName("testFourthName").currency("USD").value(new BigDecimal("-135.000")).build(),
-                UserStatusResponse.builder().userId(5L).userName("testFifthName").currency("USD").value(new BigDecimal("5.567")).build());
+                UserStatusResponse.builder().userId(1L).userName("testFirstName").currency("USD").value(new BigDecimal("-24.45")).build(),
+                UserStatusResponse.builder().userId(3L).userName("testThirdName").currency("USD").value(new BigDecimal("5.57")).build(),
+                UserStatusResponse.builder().userId(4L).userName("testFourthName").currency("USD").value(new BigDecimal("-135.00")).build(),
+                UserStatusResponse.builder().userId(5L).userName("testFifthName").currency("USD").value(new BigDecimal("5.56")).build());
 
-        groupEntityExpected.setPayments(Arrays.asList(paymentEntityFirst, paymentEntitySecond, paymentEntityThird, paymentEntityFourth));
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(debtLedgerServiceMock.retrieveMemberBalances(3L, 2L)).thenReturn(memberBalances);
 
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
-
-        when(userClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(1L, 2L, 3L, 4L, 5L)))).thenReturn(Arrays.asList(
+        when(userClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L, 3L, 4L, 5L)))).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
                 UserResponseDto.builder().id(1L).userName("testFirstName").build(),
                 UserResponseDto.builder().id(2L).userName("testSecondName").build(),
                 UserResponseDto.builder().id(3L).userName("testThirdName").build(),
                 UserResponseDto.builder().id(4L).userName("testFourthName").build(),
-                UserResponseDto.builder().id(5L).userName("testFifthName").build()));
+                UserResponseDto.builder().id(5L).userName("testFifthName").build())));
 
-        assertEquals(userStatusResponsesExpected, groupService.retrieveGroupMemberOwings(3L, 2L));
+        assertEquals(userStatusResponsesExpected, groupService.retrieveGroupMemberOwings(3L, 2L, null));
     }
 
     @Test
-    public void retrieveGroupMemberOwings_groupIdAndUserIdValidParamsWith1Payment_shouldReturnProperListOfUserStatusResponses() {
-        PaymentEntity paymentEntityFirst = PaymentEntity.builder()
-                .coPayers(Collections.singletonList(2L))
-                .price(100.0)
-                .build();
-
+    public void retrieveGroupMemberOwings_membersWithoutLedgerEntries_shouldReturnZeroValues() {
         groupEntityExpected.setMembers(Arrays.asList(
                 UserEntity.builder().userId(1L).build(),
                 UserEntity.builder().userId(2L).build(),
                 UserEntity.builder().userId(3L).build(),
                 UserEntity.builder().userId(4L).build()));
 
-        groupEntityExpected.setPayments(Collections.singletonList(paymentEntityFirst));
+        Map<Long, BigDecimal> memberBalances = new HashMap<>();
+        memberBalances.put(2L, new BigDecimal("-25.00"));
 
         List<UserStatusResponse> userStatusResponsesExpected = Arrays.asList(
-                UserStatusResponse.builder().userName("testSecondName").userId(2L).currency("USD").value(new BigDecimal("-25.000")).build(),
+                UserStatusResponse.builder().userName("testSecondName").userId(2L).currency("USD").value(new BigDecimal("-25.00")).build(),
                 UserStatusResponse.builder().userName("testThirdName").userId(3L).currency("USD").value(new BigDecimal("0")).build(),
                 UserStatusResponse.builder().userName("testFourthName").userId(4L).currency("USD").value(new BigDecimal("0")).build());
 
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(debtLedgerServiceMock.retrieveMemberBalances(3L, 1L)).thenReturn(memberBalances);
 
-        when(userClient.retrieveUsersByIds(new UsersBulkRequestDto(Arrays.asList(1L, 2L, 3L, 4L)))).thenReturn(Arrays.asList(
+        when(userClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L, 3L, 4L)))).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
                 UserResponseDto.builder().id(1L).userName("testFirstName").build(),
                 UserResponseDto.builder().id(2L).userName("testSecondName").build(),
                 UserResponseDto.builder().id(3L).userName("testThirdName").build(),
-                UserResponseDto.builder().id(4L).userName("testFourthName").build()));
+                UserResponseDto.builder().id(4L).userName("testFourthName").build())));
+
+        assertEquals(userStatusResponsesExpected, groupService.retrieveGroupMemberOwings(3L, 1L, null));
+    }
+
+    @Test
+    public void retrieveGroupMemberOwings_asOfPresent_shouldReturnBalancesFromHistoricalKernel() {
+        LocalDateTime asOf = LocalDateTime.of(2019, 1, 31, 23, 59, 59);
+
+        BalanceKernel balanceKernel = BalanceKernel.withDebts(Arrays.asList(1L, 2L));
+        balanceKernel.fold(PaymentEntity.builder().coPayers(Collections.singletonList(1L)).price(Money.ofMinorUnits(5000)).build());
+
+        List<UserStatusResponse> userStatusResponsesExpected = Collections.singletonList(
+                UserStatusResponse.builder().userId(2L).userName("testSecondName").currency("USD").value(new BigDecimal("25.00")).build());
+
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(balanceCheckpointServiceMock.retrieveBalanceKernel(3L, Arrays.asList(1L, 2L), asOf)).thenReturn(balanceKernel);
+        when(userClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L)))).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
+                UserResponseDto.builder().id(1L).userName("testFirstName").build(),
+                UserResponseDto.builder().id(2L).userName("testSecondName").build())));
+
+        assertEquals(userStatusResponsesExpected, groupService.retrieveGroupMemberOwings(3L, 1L, asOf));
+        verify(debtLedgerServiceMock, never()).retrieveMemberBalances(3L, 1L);
+    }
+
+    @Test
+    public void retrieveGroupMemberOwings_userServiceFailed_shouldReturnBalancesWithoutUserNames() {
+        CompletableFuture<List<UserResponseDto>> failedLookup = new CompletableFuture<>();
+        failedLookup.completeExceptionally(new UserServiceException("User service circuit breaker is open"));
+
+        Map<Long, BigDecimal> memberBalances = new HashMap<>();
+        memberBalances.put(2L, new BigDecimal("-25.00"));
+
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(debtLedgerServiceMock.retrieveMemberBalances(3L, 1L)).thenReturn(memberBalances);
+        when(userClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L)))).thenReturn(failedLookup);
+
+        assertEquals(Collections.singletonList(UserStatusResponse.builder().userId(2L).currency("USD").value(new BigDecimal("-25.00")).build()),
+                groupService.retrieveGroupMemberOwings(3L, 1L, null));
+    }
+
+    @Test
+    public void retrieveGroupSettlement_groupWithProperIdDoesNotExist_shouldThrowResourceNotFoundException() {
+        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> groupService.retrieveGroupSettlement(3L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Group entity with id 3 doesn't exist");
+    }
+
+    @Test
+    public void retrieveGroupSettlement_groupWithNetBalances_shouldReturnTransfersWhichSettleAllMembers() {
+        Map<Long, BigDecimal> netBalances = new HashMap<>();
+        netBalances.put(1L, new BigDecimal("-30.00"));
+        netBalances.put(2L, new BigDecimal("20.00"));
+        netBalances.put(3L, new BigDecimal("10.00"));
+
+        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(debtLedgerServiceMock.retrieveNetBalances(3L)).thenReturn(netBalances);
+
+        assertEquals(Arrays.asList(
+                SettlementTransferResponse.builder().fromUserId(1L).toUserId(2L).currency("USD").value(new BigDecimal("20.00")).build(),
+                SettlementTransferResponse.builder().fromUserId(1L).toUserId(3L).currency("USD").value(new BigDecimal("10.00")).build()),
+                groupService.retrieveGroupSettlement(3L));
+    }
+
+    @Test
+    public void retrieveGroupBalances_groupWithProperIdDoesNotExist_shouldThrowResourceNotFoundException() {
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> groupService.retrieveGroupBalances(3L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Group entity with id 3 doesn't exist");
+    }
+
+    @Test
+    public void retrieveGroupBalances_groupWithLedgerBalances_shouldReturnNetAndPairwiseBalancesOfAllMembers() {
+        groupEntityExpected.setMembers(Arrays.asList(
+                UserEntity.builder().userId(1L).build(),
+                UserEntity.builder().userId(2L).build(),
+                UserEntity.builder().userId(3L).build()));
+
+        Map<Long, Map<Long, BigDecimal>> allMemberBalances = new HashMap<>();
+        allMemberBalances.put(1L, Collections.singletonMap(2L, new BigDecimal("-25.00")));
+        allMemberBalances.put(2L, Collections.singletonMap(1L, new BigDecimal("25.00")));
+
+        when(groupRepositoryMock.findWithMembersById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(debtLedgerServiceMock.retrieveAllMemberBalances(3L)).thenReturn(allMemberBalances);
+        when(paymentRepositoryMock.sumPaidSharesByCoPayer(3L)).thenReturn(Collections.singletonList(new Object[]{2L, new BigDecimal("5000")}));
+        when(userClient.retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L, 3L)))).thenReturn(CompletableFuture.completedFuture(Arrays.asList(
+                UserResponseDto.builder().id(1L).userName("testFirstName").build(),
+                UserResponseDto.builder().id(2L).userName("testSecondName").build(),
+                UserResponseDto.builder().id(3L).userName("testThirdName").build())));
+
+        GroupBalancesResponse groupBalancesResponseExpected = GroupBalancesResponse.builder()
+                .groupId(3L)
+                .currency("USD")
+                .members(Arrays.asList(
+                        MemberBalanceResponse.builder().userId(1L).userName("testFirstName").value(new BigDecimal("-25.00")).paid(new BigDecimal("0.00"))
+                                .owings(Collections.singletonList(UserStatusResponse.builder()
+                                        .userId(2L).userName("testSecondName").currency("USD").value(new BigDecimal("-25.00")).build()))
+                                .build(),
+                        MemberBalanceResponse.builder().userId(2L).userName("testSecondName").value(new BigDecimal("25.00")).paid(new BigDecimal("50.00"))
+                                .owings(Collections.singletonList(UserStatusResponse.builder()
+                                        .userId(1L).userName("testFirstName").currency("USD").value(new BigDecimal("25.00")).build()))
+                                .build(),
+                        MemberBalanceResponse.builder().userId(3L).userName("testThirdName").value(BigDecimal.ZERO).paid(new BigDecimal("0.00"))
+                                .owings(Collections.emptyList())
+                                .build()))
+                .build();
 
-        assertEquals(userStatusResponsesExpected, groupService.retrieveGroupMemberOwings(3L, 1L));
+        assertEquals(groupBalancesResponseExpected, groupService.retrieveGroupBalances(3L));
+        verify(userClient, times(1)).retrieveUsersByIdsAsync(new UsersBulkRequestDto(Arrays.asList(1L, 2L, 3L)));
     }
 }
@@ -0,0 +1,241 @@
+package com.eleks.service;
+
+import com.eleks.dto.PaymentImportError;
+import com.eleks.dto.PaymentRequestDto;
+import com.eleks.dto.PaymentsImportResponse;
+import com.eleks.dto.UserPrincipal;
+import com.eleks.entity.GroupEntity;
+import com.eleks.entity.PaymentEntity;
+import com.eleks.entity.UserEntity;
+import com.eleks.exception.InvalidRequestException;
+import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.repository.GroupRepository;
+import com.eleks.repository.PaymentRepository;
+import com.eleks.security.AuthenticationPrincipalSecurityUtil;
+import com.eleks.service.impl.PaymentImportServiceImpl;
+import com.eleks.util.PaymentImportReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import javax.persistence.EntityManager;
+import javax.validation.Validation;
+import java.io.BufferedReader;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PaymentImportServiceTest {
+
+    @Mock
+    private GroupRepository groupRepositoryMock;
+
+    @Mock
+    private PaymentRepository paymentRepositoryMock;
+
+    @Mock
+    private AuthenticationPrincipalSecurityUtil authenticationSecurityUtil;
+
+    @Mock
+    private DebtLedgerService debtLedgerServiceMock;
+
+    @Mock
+    private EntityManager entityManagerMock;
+
+    @Mock
+    private PlatformTransactionManager transactionManagerMock;
+
+    @Captor
+    private ArgumentCaptor<List<PaymentEntity>> paymentEntitiesCaptor;
+
+    private PaymentImportServiceImpl paymentImportService;
+
+    private GroupEntity groupEntityExpected;
+
+    @Before
+    public void init() {
+        paymentImportService = new PaymentImportServiceImpl(groupRepositoryMock, paymentRepositoryMock, authenticationSecurityUtil,
+                debtLedgerServiceMock, Validation.buildDefaultValidatorFactory().getValidator(), entityManagerMock, transactionManagerMock,
+                2, 1);
+
+        groupEntityExpected = GroupEntity.builder()
+                .id(3L)
+                .groupName("groupNameTest")
+                .currency("USD")
+                .members(Arrays.asList(UserEntity.builder().userId(1L).build(), UserEntity.builder().userId(2L).build()))
+                .build();
+    }
+
+    @Test
+    public void importPayments_groupDoesNotExist_shouldThrowResourceNotFoundException() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> paymentImportService.importPayments(3L, ndjson("")))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Group with 3 group id doesn't exist");
+    }
+
+    @Test
+    public void importPayments_userPrincipalIsNull_shouldThrowInvalidRequestException() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
+
+        assertThatThrownBy(() -> paymentImportService.importPayments(3L, ndjson("")))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Authentication principal can not be null");
+    }
+
+    @Test
+    public void importPayments_validAndInvalidLines_shouldWriteValidPaymentsInBatchesAndReportInvalidLines() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(authenticationSecurityUtil.retrievePrincipal()).thenReturn(new UserPrincipal("testName", 4L));
+
+        PaymentsImportResponse paymentsImportResponse = paymentImportService.importPayments(3L, ndjson(
+                "{\"paymentDescription\":\"first\",\"price\":10,\"coPayers\":[1]}\n" +
+                "{\"paymentDescription\":\"stranger\",\"price\":10,\"coPayers\":[5]}\n" +
+                "{\"paymentDescription\":\"second\",\"price\":10,\"coPayers\":[1,2]}\n" +
+                "{\"paymentDescription\":\"\",\"price\":10,\"coPayers\":[2]}\n" +
+                "{\"paymentDescription\":\"third\",\"price\":10,\"coPayers\":[2]}\n"));
+
+        assertEquals(PaymentsImportResponse.builder()
+                .importedCount(3)
+                .failedCount(2)
+                .errors(Collections.singletonList(new PaymentImportError(2, "Co-payers ids are not members of group with id 3")))
+                .completed(true)
+                .build(), paymentsImportResponse);
+
+        verify(groupRepositoryMock, times(3)).findByIdForUpdate(3L);
+        verify(transactionManagerMock, times(3)).commit(any(TransactionStatus.class));
+        verify(paymentRepositoryMock, times(2)).findMaxSequenceNumberByGroupId(3L);
+        verify(paymentRepositoryMock, times(2)).save(anyListOf(PaymentEntity.class));
+        verify(debtLedgerServiceMock, times(2)).registerPayments(anyListOf(PaymentEntity.class), eq(Arrays.asList(1L, 2L)));
+        verify(entityManagerMock, times(2)).flush();
+        verify(entityManagerMock, times(2)).clear();
+        assertEquals(Long.valueOf(3L), groupEntityExpected.getPaymentsSinceCheckpoint());
+    }
+
+    @Test
+    public void importPayments_noValidLines_shouldNotWritePayments() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(authenticationSecurityUtil.retrievePrincipal()).thenReturn(new UserPrincipal("testName", 4L));
+
+        PaymentsImportResponse paymentsImportResponse = paymentImportService.importPayments(3L, ndjson(
+                "{\"paymentDescription\":\"first\",\"coPayers\":[1]}\n"));
+
+        assertEquals(Integer.valueOf(0), paymentsImportResponse.getImportedCount());
+        assertEquals(Collections.singletonList(new PaymentImportError(1, "Validation failed: Price shouldn't be null.")),
+                paymentsImportResponse.getErrors());
+        verifyZeroInteractions(paymentRepositoryMock, debtLedgerServiceMock, entityManagerMock);
+    }
+
+    @Test
+    public void importPayments_batchIsWritten_shouldTakeTimeStampsTogetherWithSequenceNumbers() {
+        AtomicReference<LocalDateTime> sequenceNumberTakenAt = new AtomicReference<>();
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(authenticationSecurityUtil.retrievePrincipal()).thenReturn(new UserPrincipal("testName", 4L));
+        when(paymentRepositoryMock.findMaxSequenceNumberByGroupId(3L)).thenAnswer(invocation -> {
+            sequenceNumberTakenAt.set(LocalDateTime.now());
+            return 5L;
+        });
+
+        paymentImportService.importPayments(3L, ndjson(
+                "{\"paymentDescription\":\"first\",\"price\":10,\"coPayers\":[1]}\n" +
+                "{\"paymentDescription\":\"second\",\"price\":10,\"coPayers\":[2]}\n"));
+
+        verify(paymentRepositoryMock).save(paymentEntitiesCaptor.capture());
+
+        List<PaymentEntity> paymentEntities = paymentEntitiesCaptor.getValue();
+        assertEquals(Arrays.asList(6L, 7L), paymentEntities.stream()
+                .map(PaymentEntity::getSequenceNumber)
+                .collect(Collectors.toList()));
+        assertFalse(paymentEntities.get(0).getTimeStamp().isBefore(sequenceNumberTakenAt.get()));
+        assertEquals(paymentEntities.get(0).getTimeStamp(), paymentEntities.get(1).getTimeStamp());
+    }
+
+    @Test
+    public void importPayments_coPayerLeftGroupBeforeBatchIsWritten_shouldReportItsPaymentAsFailed() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected))
+                .thenReturn(Optional.of(GroupEntity.builder()
+                        .id(3L)
+                        .members(Collections.singletonList(UserEntity.builder().userId(2L).build()))
+                        .build()));
+        when(authenticationSecurityUtil.retrievePrincipal()).thenReturn(new UserPrincipal("testName", 4L));
+
+        PaymentsImportResponse paymentsImportResponse = paymentImportService.importPayments(3L, ndjson(
+                "{\"paymentDescription\":\"first\",\"price\":10,\"coPayers\":[1]}\n" +
+                "{\"paymentDescription\":\"second\",\"price\":10,\"coPayers\":[2]}\n"));
+
+        assertEquals(PaymentsImportResponse.builder()
+                .importedCount(1)
+                .failedCount(1)
+                .errors(Collections.singletonList(new PaymentImportError(1, "Co-payers ids are not members of group with id 3")))
+                .completed(true)
+                .build(), paymentsImportResponse);
+        verify(debtLedgerServiceMock).registerPayments(anyListOf(PaymentEntity.class), eq(Collections.singletonList(2L)));
+    }
+
+    @Test
+    public void importPayments_bodyFailsToBeReadMidway_shouldKeepWrittenBatchesAndReportLineToResumeFrom() {
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(authenticationSecurityUtil.retrievePrincipal()).thenReturn(new UserPrincipal("testName", 4L));
+
+        PaymentsImportResponse paymentsImportResponse = paymentImportService.importPayments(3L, PaymentImportReader.ndjson(
+                failingReader("{\"paymentDescription\":\"first\",\"price\":10,\"coPayers\":[1]}\n" +
+                        "{\"paymentDescription\":\"second\",\"price\":10,\"coPayers\":[2]}\n" +
+                        "{\"paymentDescription\":\"third\",\"price\":10,\"coPayers\":[2]}\n" +
+                        "{\"paymentDescr"),
+                new ObjectMapper().readerFor(PaymentRequestDto.class)));
+
+        assertEquals(PaymentsImportResponse.builder()
+                .importedCount(3)
+                .failedCount(0)
+                .errors(Collections.singletonList(new PaymentImportError(4, "Payments import can not be read: Connection reset")))
+                .completed(false)
+                .build(), paymentsImportResponse);
+        verify(transactionManagerMock, times(3)).commit(any(TransactionStatus.class));
+        verify(transactionManagerMock, never()).rollback(any(TransactionStatus.class));
+    }
+
+    private PaymentImportReader ndjson(String body) {
+        return PaymentImportReader.ndjson(new BufferedReader(new StringReader(body)), new ObjectMapper().readerFor(PaymentRequestDto.class));
+    }
+
+    //reader fails instead of reporting end of body, like connection of client dropped during upload
+    private BufferedReader failingReader(String body) {
+        return new BufferedReader(new FilterReader(new StringReader(body)) {
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int count = super.read(buffer, offset, length);
+
+                if (count < 0) {
+                    throw new IOException("Connection reset");
+                }
+
+                return count;
+            }
+        });
+    }
+}
@@ -1,7 +1,9 @@
 package com.eleks.service;
 
+import com.eleks.dto.Money;
 import com.eleks.dto.PaymentRequestDto;
 import com.eleks.dto.PaymentResponseDto;
+import com.eleks.dto.PaymentsPageResponse;
 import com.eleks.dto.UserPrincipal;
 import com.eleks.entity.GroupEntity;
 import com.eleks.entity.PaymentEntity;
@@ -12,12 +14,16 @@ import com.eleks.repository.GroupRepository;
 import com.eleks.repository.PaymentRepository;
 import com.eleks.security.AuthenticationPrincipalSecurityUtil;
 import com.eleks.service.impl.PaymentServiceImpl;
+import com.eleks.util.PaymentCursorUtil;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -27,7 +33,10 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -42,6 +51,12 @@ public class PaymentServiceTest {
     @Mock
     private AuthenticationPrincipalSecurityUtil authenticationSecurityUtil;
 
+    @Mock
+    private DebtLedgerService debtLedgerServiceMock;
+
+    @Mock
+    private BalanceCheckpointService balanceCheckpointServiceMock;
+
     @InjectMocks
     private PaymentServiceImpl paymentService;
 
@@ -56,9 +71,9 @@ public class PaymentServiceTest {
     @Before
     public void init() {
         paymentRequestDtoExpected =
-                new PaymentRequestDto("paymentDescriptionTest", 12.3, Arrays.asList(1L, 2L));
+                new PaymentRequestDto("paymentDescriptionTest", Money.ofMinorUnits(1230), Arrays.asList(1L, 2L));
 
-        paymentResponseDtoExpected = new PaymentResponseDto(1L, 3L, "paymentDescriptionTest", 12.3, Arrays.asList(1L, 2L), 4L,
+        paymentResponseDtoExpected = new PaymentResponseDto(1L, 3L, "paymentDescriptionTest", Money.ofMinorUnits(1230), Arrays.asList(1L, 2L), 4L,
                 LocalDateTime.of(2012, 1, 1, 10, 15, 3));
 
         groupEntityExpected = GroupEntity.builder()
@@ -72,16 +87,17 @@ public class PaymentServiceTest {
                 .id(1L)
                 .groupId(3L)
                 .paymentDescription("paymentDescriptionTest")
-                .price(12.3)
+                .price(Money.ofMinorUnits(1230))
                 .coPayers(Arrays.asList(1L, 2L))
                 .creatorId(4L)
                 .timeStamp(LocalDateTime.of(2012, 1, 1, 10, 15, 3))
+                .sequenceNumber(7L)
                 .build();
     }
 
     @Test
     public void createPayment_groupWithProperGroupIdDoesNotExist_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.empty());
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> paymentService.createPayment(paymentRequestDtoExpected, 3L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -90,7 +106,7 @@ public class PaymentServiceTest {
 
     @Test
     public void createPayment_groupMembersListDoNotContainAllCoPayersIds_shouldThrowInvalidRequestException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
 
         assertThatThrownBy(() -> paymentService.createPayment(paymentRequestDtoExpected, 3L))
                 .isInstanceOf(InvalidRequestException.class)
@@ -100,18 +116,23 @@ public class PaymentServiceTest {
     @Test
     public void createPayment_coPayersIdsValid_shouldInvokeRepositoryMethodSaveOnce() {
         groupEntityExpected.getMembers().get(1).setUserId(1L);
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
         when(authenticationSecurityUtil.retrievePrincipal()).thenReturn(new UserPrincipal("testName", 4L));
+        when(paymentRepositoryMock.findMaxSequenceNumberByGroupId(3L)).thenReturn(6L);
 
         paymentService.createPayment(paymentRequestDtoExpected, 3L);
 
-        verify(paymentRepositoryMock).save(any(PaymentEntity.class));
+        ArgumentCaptor<PaymentEntity> paymentEntityCaptor = ArgumentCaptor.forClass(PaymentEntity.class);
+        verify(paymentRepositoryMock).save(paymentEntityCaptor.capture());
+        verify(debtLedgerServiceMock).registerPayment(any(PaymentEntity.class), eq(Arrays.asList(2L, 1L)));
+        assertEquals(Long.valueOf(7L), paymentEntityCaptor.getValue().getSequenceNumber());
+        assertEquals(Long.valueOf(1L), groupEntityExpected.getPaymentsSinceCheckpoint());
     }
 
     @Test
     public void createPayment_userPrincipalIsNull_shouldThrowInvalidRequestException() {
         groupEntityExpected.getMembers().get(1).setUserId(1L);
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
 
         assertThatThrownBy(() -> paymentService.createPayment(paymentRequestDtoExpected, 3L))
                 .isInstanceOf(InvalidRequestException.class)
@@ -120,23 +141,61 @@ public class PaymentServiceTest {
 
     @Test
     public void retrievePayments_paymentsWithGroupIdDoNotExist_shouldThrowResourceNotFoundException() {
-        when(paymentRepositoryMock.findByGroupId(3L)).thenReturn(Collections.emptyList());
+        when(paymentRepositoryMock.findByGroupIdOrderByTimeStampAscIdAsc(3L, new PageRequest(0, 51))).thenReturn(Collections.emptyList());
 
-        assertThatThrownBy(() -> paymentService.retrievePayments(3L))
+        assertThatThrownBy(() -> paymentService.retrievePayments(3L, null, 50))
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Payments with group id 3 doesn't exist");
     }
 
     @Test
     public void retrievePayments_paymentsWithGroupIdExist_shouldReturnProperListOfPaymentResponseDto() {
-        when(paymentRepositoryMock.findByGroupId(3L)).thenReturn(Collections.singletonList(paymentEntityExpected));
+        when(paymentRepositoryMock.findByGroupIdOrderByTimeStampAscIdAsc(3L, new PageRequest(0, 51))).thenReturn(Collections.singletonList(paymentEntityExpected));
+
+        assertEquals(new PaymentsPageResponse(Collections.singletonList(paymentResponseDtoExpected), null), paymentService.retrievePayments(3L, null, 50));
+    }
 
-        assertEquals(Collections.singletonList(paymentResponseDtoExpected), paymentService.retrievePayments(3L));
+    @Test
+    public void retrievePayments_morePaymentsThanLimit_shouldReturnCursorOfLastPaymentOnPage() {
+        PaymentEntity secondPaymentEntity = PaymentEntity.builder()
+                .id(2L)
+                .groupId(3L)
+                .paymentDescription("paymentDescriptionTest")
+                .price(Money.ofMinorUnits(1230))
+                .coPayers(Arrays.asList(1L, 2L))
+                .creatorId(4L)
+                .timeStamp(LocalDateTime.of(2012, 1, 2, 10, 15, 3))
+                .build();
+
+        when(paymentRepositoryMock.findByGroupIdOrderByTimeStampAscIdAsc(3L, new PageRequest(0, 2)))
+                .thenReturn(Arrays.asList(paymentEntityExpected, secondPaymentEntity));
+
+        PaymentsPageResponse paymentsPageResponse = paymentService.retrievePayments(3L, null, 1);
+
+        assertEquals(Collections.singletonList(paymentResponseDtoExpected), paymentsPageResponse.getPayments());
+        assertEquals(PaymentCursorUtil.encode(paymentEntityExpected), paymentsPageResponse.getNext());
+    }
+
+    @Test
+    public void retrievePayments_cursorPresent_shouldRetrievePaymentsAfterCursorKey() {
+        when(paymentRepositoryMock.findByGroupIdAfterKey(3L, LocalDateTime.of(2012, 1, 1, 10, 15, 3), 1L, new PageRequest(0, 51)))
+                .thenReturn(Collections.emptyList());
+
+        assertEquals(new PaymentsPageResponse(Collections.emptyList(), null),
+                paymentService.retrievePayments(3L, PaymentCursorUtil.encode(paymentEntityExpected), 50));
+    }
+
+    @Test
+    public void retrievePayments_limitIsGreaterThanMax_shouldThrowInvalidRequestException() {
+        assertThatThrownBy(() -> paymentService.retrievePayments(3L, null, 501))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Limit should be between 1 and 500");
     }
 
     @Test
     public void retrievePayment_groupWithProperGroupIdDoesNotExist_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.empty());
+        when(paymentRepositoryMock.findByGroupIdAndId(3L, 4L)).thenReturn(Optional.empty());
+        when(groupRepositoryMock.exists(3L)).thenReturn(false);
 
         assertThatThrownBy(() -> paymentService.retrievePayment(3L, 4L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -145,7 +204,8 @@ public class PaymentServiceTest {
 
     @Test
     public void retrievePayment_paymentWithProperPaymentIdDoesNotExist_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(paymentRepositoryMock.findByGroupIdAndId(3L, 4L)).thenReturn(Optional.empty());
+        when(groupRepositoryMock.exists(3L)).thenReturn(true);
 
         assertThatThrownBy(() -> paymentService.retrievePayment(3L, 4L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -153,16 +213,16 @@ public class PaymentServiceTest {
     }
 
     @Test
-    public void retrievePayment_paymentExist_shouldReturnProperPaymentResponseDto() {
-        groupEntityExpected.setPayments(Collections.singletonList(paymentEntityExpected));
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+    public void retrievePayment_paymentExist_shouldReturnProperPaymentResponseDtoWithoutLoadingGroup() {
+        when(paymentRepositoryMock.findByGroupIdAndId(3L, 1L)).thenReturn(Optional.of(paymentEntityExpected));
 
         assertEquals(paymentResponseDtoExpected, paymentService.retrievePayment(3L, 1L));
+        verifyZeroInteractions(groupRepositoryMock);
     }
 
     @Test
     public void deletePayment_groupWithProperGroupIdDoesNotExist_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.empty());
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> paymentService.deletePayment(3L, 4L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -171,7 +231,8 @@ public class PaymentServiceTest {
 
     @Test
     public void deletePayment_paymentWithProperPaymentIdDoesNotExist_shouldThrowResourceNotFoundException() {
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(paymentRepositoryMock.findByGroupIdAndId(3L, 4L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> paymentService.deletePayment(3L, 4L))
                 .isInstanceOf(ResourceNotFoundException.class)
@@ -180,11 +241,15 @@ public class PaymentServiceTest {
 
     @Test
     public void deletePayment_paymentExist_shouldInvokeRepositoryMethodDeleteOnce() {
-        groupEntityExpected.setPayments(Collections.singletonList(paymentEntityExpected));
-        when(groupRepositoryMock.findById(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(groupRepositoryMock.findByIdForUpdate(3L)).thenReturn(Optional.of(groupEntityExpected));
+        when(paymentRepositoryMock.findByGroupIdAndId(3L, 1L)).thenReturn(Optional.of(paymentEntityExpected));
 
         paymentService.deletePayment(3L, 1L);
 
-        verify(paymentRepositoryMock).delete(paymentEntityExpected);
+        InOrder deleteOrder = inOrder(paymentRepositoryMock, balanceCheckpointServiceMock);
+        verify(debtLedgerServiceMock).unregisterPayment(paymentEntityExpected, Arrays.asList(2L, 3L));
+        deleteOrder.verify(paymentRepositoryMock).deleteCoPayersByGroupIdAndId(3L, 1L);
+        deleteOrder.verify(paymentRepositoryMock).deleteByGroupIdAndId(3L, 1L);
+        deleteOrder.verify(balanceCheckpointServiceMock).invalidateCheckpoints(3L, 7L);
     }
 }
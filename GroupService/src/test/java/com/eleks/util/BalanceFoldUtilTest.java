@@ -0,0 +1,70 @@
+package com.eleks.util;
+
+import com.eleks.dto.Money;
+import com.eleks.entity.PaymentEntity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+
+public class BalanceFoldUtilTest {
+
+    private BalanceFoldUtil balanceFoldUtil;
+
+    private List<Long> groupMembersIds;
+
+    private List<PaymentEntity> paymentEntities;
+
+    @Before
+    public void init() {
+        balanceFoldUtil = new BalanceFoldUtil(100, 64, 4);
+
+        groupMembersIds = LongStream.rangeClosed(1, 20).boxed().collect(Collectors.toList());
+
+        Random random = new Random(42);
+        paymentEntities = new ArrayList<>();
+
+        for (long id = 1; id <= 1000; id++) {
+            List<Long> coPayers = groupMembersIds.stream()
+                    .filter(memberId -> random.nextInt(4) == 0)
+                    .collect(Collectors.toList());
+            coPayers.add(groupMembersIds.get(random.nextInt(groupMembersIds.size())));
+
+            paymentEntities.add(PaymentEntity.builder()
+                    .id(id)
+                    .coPayers(coPayers.stream().distinct().collect(Collectors.toList()))
+                    .price(Money.ofMinorUnits(1 + random.nextInt(1000000)))
+                    .build());
+        }
+    }
+
+    @After
+    public void destroy() {
+        balanceFoldUtil.shutdown();
+    }
+
+    @Test
+    public void foldWithDebts_streamOfPaymentsAboveThreshold_shouldEqualSequentialFold() {
+        BalanceKernel balanceKernelExpected = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntities.forEach(balanceKernelExpected::fold);
+
+        assertEquals(balanceKernelExpected.debts(), balanceFoldUtil.foldWithDebts(groupMembersIds, paymentEntities.stream()).debts());
+    }
+
+    @Test
+    public void foldWithDebts_streamOfPaymentsBelowThreshold_shouldEqualSequentialFold() {
+        List<PaymentEntity> fewPaymentEntities = paymentEntities.subList(0, 50);
+
+        BalanceKernel balanceKernelExpected = BalanceKernel.withDebts(groupMembersIds);
+        fewPaymentEntities.forEach(balanceKernelExpected::fold);
+
+        assertEquals(balanceKernelExpected.debts(), balanceFoldUtil.foldWithDebts(groupMembersIds, fewPaymentEntities.stream()).debts());
+    }
+}
@@ -0,0 +1,115 @@
+package com.eleks.util;
+
+import com.eleks.dto.Money;
+import com.eleks.entity.PaymentEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BalanceKernelTest {
+
+    private List<Long> groupMembersIds;
+
+    private List<PaymentEntity> paymentEntities;
+
+    @Before
+    public void init() {
+        groupMembersIds = Arrays.asList(1L, 2L, 3L, 4L, 5L);
+
+        paymentEntities = Arrays.asList(
+                PaymentEntity.builder().coPayers(Arrays.asList(1L, 2L, 4L)).price(Money.ofMinorUnits(45025)).build(),
+                PaymentEntity.builder().coPayers(Arrays.asList(2L, 4L)).price(Money.ofMinorUnits(50550)).build(),
+                PaymentEntity.builder().coPayers(Collections.singletonList(4L)).price(Money.ofMinorUnits(30000)).build(),
+                PaymentEntity.builder().coPayers(Arrays.asList(1L, 3L, 4L, 5L)).price(Money.ofMinorUnits(150000)).build());
+    }
+
+    @Test
+    public void memberBalances_groupWith4Payments_shouldReturnProperBalancesOfUser() {
+        BalanceKernel balanceKernel = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntities.forEach(balanceKernel::fold);
+
+        Map<Long, BigDecimal> memberBalancesExpected = new LinkedHashMap<>();
+        memberBalancesExpected.put(1L, new BigDecimal("-24.45"));
+        memberBalancesExpected.put(3L, new BigDecimal("5.57"));
+        memberBalancesExpected.put(4L, new BigDecimal("-135.00"));
+        memberBalancesExpected.put(5L, new BigDecimal("5.56"));
+
+        assertEquals(memberBalancesExpected, balanceKernel.memberBalances(2L));
+    }
+
+    @Test
+    public void debts_coPayerIsNotMemberOfGroup_shouldIgnoreHim() {
+        BalanceKernel balanceKernel = BalanceKernel.withDebts(Arrays.asList(1L, 2L));
+        balanceKernel.fold(PaymentEntity.builder().coPayers(Arrays.asList(1L, 7L)).price(Money.ofMinorUnits(10000)).build());
+
+        Map<Long, Map<Long, Long>> debtsExpected = new HashMap<>();
+        debtsExpected.put(1L, Collections.singletonMap(2L, 5000L));
+
+        assertEquals(debtsExpected, balanceKernel.debts());
+    }
+
+    @Test
+    public void debts_allMembersAreCoPayers_shouldReturnEmptyMap() {
+        BalanceKernel balanceKernel = BalanceKernel.withDebts(Arrays.asList(1L, 2L));
+        balanceKernel.fold(PaymentEntity.builder().coPayers(Arrays.asList(1L, 2L)).price(Money.ofMinorUnits(10000)).build());
+
+        assertTrue(balanceKernel.debts().isEmpty());
+    }
+
+    @Test
+    public void debts_groupWith100000Members_shouldKeepOnlyPairsOfCoPayers() {
+        List<Long> largeGroupMembersIds = new ArrayList<>();
+
+        for (long memberId = 1; memberId <= 100000; memberId++) {
+            largeGroupMembersIds.add(memberId);
+        }
+
+        BalanceKernel balanceKernel = BalanceKernel.withDebts(largeGroupMembersIds);
+        balanceKernel.fold(PaymentEntity.builder().id(7L).coPayers(Arrays.asList(1L, 2L)).price(Money.ofMinorUnits(2000003)).build());
+
+        Map<Long, Map<Long, Long>> debts = balanceKernel.debts();
+
+        assertEquals(2, debts.size());
+        assertEquals(99998, debts.get(1L).size());
+        assertEquals(99998, debts.get(2L).size());
+        assertEquals(2000003 - 40, debts.values().stream()
+                .flatMap(debtorsAmounts -> debtorsAmounts.values().stream())
+                .mapToLong(Long::longValue)
+                .sum());
+        assertEquals(new BigDecimal("0.00"), balanceKernel.memberBalances(1L).get(2L));
+        assertEquals(new BigDecimal("0.10"), balanceKernel.memberBalances(1L).get(3L));
+
+        BalanceKernel otherBalanceKernel = BalanceKernel.withDebts(largeGroupMembersIds);
+        otherBalanceKernel.fold(PaymentEntity.builder().id(8L).coPayers(Collections.singletonList(3L)).price(Money.ofMinorUnits(100000)).build());
+
+        assertEquals(new BigDecimal("0.09"), balanceKernel.merge(otherBalanceKernel).memberBalances(1L).get(3L));
+    }
+
+    @Test
+    public void merge_kernelsOfPaymentsHalves_shouldEqualKernelOfAllPayments() {
+        BalanceKernel balanceKernelExpected = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntities.forEach(balanceKernelExpected::fold);
+
+        BalanceKernel firstHalfKernel = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntities.subList(0, 2).forEach(firstHalfKernel::fold);
+        BalanceKernel secondHalfKernel = BalanceKernel.withDebts(groupMembersIds);
+        paymentEntities.subList(2, 4).forEach(secondHalfKernel::fold);
+
+        BalanceKernel balanceKernel = firstHalfKernel.merge(secondHalfKernel);
+
+        assertEquals(balanceKernelExpected.debts(), balanceKernel.debts());
+    }
+
+    @Test
+    public void merge_kernelsOfDifferentMembers_shouldThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> BalanceKernel.withDebts(groupMembersIds).merge(BalanceKernel.withDebts(Arrays.asList(1L, 2L))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Only balance kernels of the same members can be merged");
+    }
+}
@@ -0,0 +1,31 @@
+package com.eleks.util;
+
+import com.eleks.entity.PaymentEntity;
+import com.eleks.exception.InvalidRequestException;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+
+public class PaymentCursorUtilTest {
+
+    @Test
+    public void decode_encodedPayment_shouldReturnKeyOfPayment() {
+        PaymentEntity paymentEntity = PaymentEntity.builder()
+                .id(42L)
+                .timeStamp(LocalDateTime.of(2019, 1, 31, 23, 59, 59, 123000000))
+                .build();
+
+        assertEquals(new PaymentCursorUtil.PaymentCursor(LocalDateTime.of(2019, 1, 31, 23, 59, 59, 123000000), 42L),
+                PaymentCursorUtil.decode(PaymentCursorUtil.encode(paymentEntity)));
+    }
+
+    @Test
+    public void decode_malformedCursor_shouldThrowInvalidRequestException() {
+        assertThatThrownBy(() -> PaymentCursorUtil.decode("notACursor"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Payments cursor notACursor is not valid");
+    }
+}
@@ -0,0 +1,90 @@
+package com.eleks.util;
+
+import com.eleks.dto.Money;
+import com.eleks.dto.PaymentRequestDto;
+import com.eleks.exception.InvalidRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PaymentImportReaderTest {
+
+    @Test
+    public void read_ndjsonLines_shouldReturnPaymentsAndSkipBlankLines() throws Exception {
+        PaymentImportReader paymentImportReader = ndjson("{\"paymentDescription\":\"first\",\"price\":12.30,\"coPayers\":[1,2]}\n" +
+                "\n" +
+                "{\"paymentDescription\":\"second\",\"price\":5,\"coPayers\":[]}\n");
+
+        assertEquals(new PaymentRequestDto("first", Money.ofMinorUnits(1230), Arrays.asList(1L, 2L)), paymentImportReader.read());
+        assertEquals(1, paymentImportReader.getLineNumber());
+        assertEquals(new PaymentRequestDto("second", Money.ofMinorUnits(500), Collections.emptyList()), paymentImportReader.read());
+        assertEquals(3, paymentImportReader.getLineNumber());
+        assertNull(paymentImportReader.read());
+    }
+
+    @Test
+    public void read_malformedNdjsonLine_shouldThrowInvalidRequestExceptionAndContinueFromNextLine() throws Exception {
+        PaymentImportReader paymentImportReader = ndjson("{\"paymentDescription\":\n" +
+                "{\"paymentDescription\":\"second\",\"price\":5,\"coPayers\":[1]}\n");
+
+        assertThatThrownBy(paymentImportReader::read)
+                .isInstanceOf(InvalidRequestException.class);
+        assertEquals(1, paymentImportReader.getLineNumber());
+        assertEquals(new PaymentRequestDto("second", Money.ofMinorUnits(500), Collections.singletonList(1L)), paymentImportReader.read());
+    }
+
+    @Test
+    public void read_csvLinesWithReorderedColumns_shouldReturnPayments() throws Exception {
+        PaymentImportReader paymentImportReader = csv("price,coPayers,paymentDescription\n" +
+                "12.30,1;2,\"dinner, \"\"downtown\"\"\"\n" +
+                ",,\n");
+
+        assertEquals(new PaymentRequestDto("dinner, \"downtown\"", Money.ofMinorUnits(1230), Arrays.asList(1L, 2L)), paymentImportReader.read());
+        assertEquals(2, paymentImportReader.getLineNumber());
+        assertEquals(new PaymentRequestDto("", null, Collections.emptyList()), paymentImportReader.read());
+        assertNull(paymentImportReader.read());
+    }
+
+    @Test
+    public void read_csvLineWithWrongColumnsCount_shouldThrowInvalidRequestException() throws Exception {
+        PaymentImportReader paymentImportReader = csv("paymentDescription,price,coPayers\n" +
+                "dinner,12.30\n");
+
+        assertThatThrownBy(paymentImportReader::read)
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Payment should have 3 columns, but has 2");
+    }
+
+    @Test
+    public void read_csvLineWithInvalidCoPayer_shouldThrowInvalidRequestException() throws Exception {
+        PaymentImportReader paymentImportReader = csv("paymentDescription,price,coPayers\n" +
+                "dinner,12.30,1;two\n");
+
+        assertThatThrownBy(paymentImportReader::read)
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Price 12.30 or co-payers 1;two are not valid numbers");
+    }
+
+    @Test
+    public void csv_headerWithoutRequiredColumn_shouldThrowInvalidRequestException() {
+        assertThatThrownBy(() -> csv("paymentDescription,price\n"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Payments csv header should contain columns paymentDescription,price,coPayers");
+    }
+
+    private PaymentImportReader ndjson(String body) {
+        return PaymentImportReader.ndjson(new BufferedReader(new StringReader(body)), new ObjectMapper().readerFor(PaymentRequestDto.class));
+    }
+
+    private PaymentImportReader csv(String body) throws Exception {
+        return PaymentImportReader.csv(new BufferedReader(new StringReader(body)));
+    }
+}
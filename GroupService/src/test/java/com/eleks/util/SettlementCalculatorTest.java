@@ -0,0 +1,65 @@
+package com.eleks.util;
+
+import com.eleks.dto.SettlementTransferResponse;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SettlementCalculatorTest {
+
+    @Test
+    public void calculateTransfers_emptyBalances_shouldReturnEmptyList() {
+        assertTrue(SettlementCalculator.calculateTransfers(Collections.emptyMap(), "USD").isEmpty());
+    }
+
+    @Test
+    public void calculateTransfers_allBalancesAreZero_shouldReturnEmptyList() {
+        Map<Long, BigDecimal> netBalances = new HashMap<>();
+        netBalances.put(1L, new BigDecimal("0.000"));
+        netBalances.put(2L, BigDecimal.ZERO);
+
+        assertTrue(SettlementCalculator.calculateTransfers(netBalances, "USD").isEmpty());
+    }
+
+    @Test
+    public void calculateTransfers_oneDebtorSeveralCreditors_shouldPayBiggestCreditorFirst() {
+        Map<Long, BigDecimal> netBalances = new HashMap<>();
+        netBalances.put(1L, new BigDecimal("5.5"));
+        netBalances.put(2L, new BigDecimal("-20.5"));
+        netBalances.put(3L, new BigDecimal("15"));
+
+        assertEquals(Arrays.asList(
+                new SettlementTransferResponse(2L, 3L, "USD", new BigDecimal("15")),
+                new SettlementTransferResponse(2L, 1L, "USD", new BigDecimal("5.5"))),
+                SettlementCalculator.calculateTransfers(netBalances, "USD"));
+    }
+
+    @Test
+    public void calculateTransfers_randomBalances_shouldSettleEveryMemberWithLessTransfersThanMembers() {
+        Random random = new Random(42);
+        Map<Long, BigDecimal> netBalances = new HashMap<>();
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (long userId = 1; userId < 1000; userId++) {
+            BigDecimal balance = BigDecimal.valueOf(random.nextInt(200000) - 100000, 3);
+            netBalances.put(userId, balance);
+            total = total.add(balance);
+        }
+        netBalances.put(1000L, total.negate());
+
+        List<SettlementTransferResponse> transfers = SettlementCalculator.calculateTransfers(netBalances, "USD");
+
+        Map<Long, BigDecimal> settledBalances = new HashMap<>(netBalances);
+        transfers.forEach(transfer -> {
+            settledBalances.merge(transfer.getFromUserId(), transfer.getValue(), BigDecimal::add);
+            settledBalances.merge(transfer.getToUserId(), transfer.getValue().negate(), BigDecimal::add);
+        });
+
+        assertTrue(transfers.size() < netBalances.size());
+        settledBalances.values().forEach(balance -> assertEquals(0, balance.signum()));
+    }
+}
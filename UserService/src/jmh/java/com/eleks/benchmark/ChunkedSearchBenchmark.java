@@ -0,0 +1,76 @@
+package com.eleks.benchmark;
+
+import com.eleks.util.ChunkedSearchUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+//every query costs fixed round trip plus small per id cost, chunkSize = 1 reproduces former findById per id search;
+//number of queries sent by single bulk search is printed at the end of every trial
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkedSearchBenchmark {
+
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private static final long PER_ID_NANOS = 500;
+
+    @Param({"10", "100", "500", "2000"})
+    private int idsCount;
+
+    @Param({"1", "100", "500"})
+    private int chunkSize;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private ChunkedSearchUtil chunkedSearchUtil;
+
+    private List<Long> ids;
+
+    @Setup
+    public void init() {
+        chunkedSearchUtil = new ChunkedSearchUtil(chunkSize, parallelism);
+        ids = LongStream.rangeClosed(1, idsCount).boxed().collect(Collectors.toList());
+    }
+
+    @TearDown
+    public void destroy() {
+        chunkedSearchUtil.shutdown();
+    }
+
+    @Benchmark
+    public List<Long> bulkSearch(QueriesCounter queriesCounter) {
+        queriesCounter.operations++;
+
+        return chunkedSearchUtil.search(ids, chunk -> {
+            queriesCounter.queries.incrementAndGet();
+            LockSupport.parkNanos(ROUND_TRIP_NANOS + PER_ID_NANOS * chunk.size());
+
+            return chunk;
+        }, Function.identity());
+    }
+
+    @State(Scope.Thread)
+    public static class QueriesCounter {
+
+        private final AtomicLong queries = new AtomicLong();
+
+        private long operations;
+
+        @TearDown(Level.Trial)
+        public void report() {
+            System.out.println("Queries per bulk search: " + (operations == 0 ? 0 : (double) queries.get() / operations));
+        }
+    }
+}
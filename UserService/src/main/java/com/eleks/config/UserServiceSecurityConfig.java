@@ -9,7 +9,7 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 @EnableWebSecurity
@@ -17,10 +17,14 @@ public class UserServiceSecurityConfig extends BaseSecurityConfig {
 
     private UserDetailsService userDetailsService;
 
+    private PasswordEncoder passwordEncoder;
+
     @Autowired
-    public UserServiceSecurityConfig(UserDetailsService userDetailsService, AuthenticationPrincipalSecurityUtil authenticationSecurityUtil) {
+    public UserServiceSecurityConfig(UserDetailsService userDetailsService, AuthenticationPrincipalSecurityUtil authenticationSecurityUtil,
+                                     PasswordEncoder passwordEncoder) {
         super(authenticationSecurityUtil);
         this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
     }
 
     @Override
@@ -31,6 +35,6 @@ public class UserServiceSecurityConfig extends BaseSecurityConfig {
 
     @Autowired
     public void globalUserDetails(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService).passwordEncoder(new BCryptPasswordEncoder());
+        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
     }
 }
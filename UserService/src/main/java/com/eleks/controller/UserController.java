@@ -52,4 +52,9 @@ public class UserController {
     List<UserResponseDto> bulkSearch(@RequestBody @Valid UsersBulkRequestDto usersBulkRequestDto) {
         return userService.bulkSearch(usersBulkRequestDto);
     }
+
+    @PostMapping(value = "/search/ids")
+    List<Long> bulkSearchIds(@RequestBody @Valid UsersBulkRequestDto usersBulkRequestDto) {
+        return userService.retrieveExistingUserIds(usersBulkRequestDto);
+    }
 }
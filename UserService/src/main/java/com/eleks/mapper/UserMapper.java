@@ -4,7 +4,8 @@ import com.eleks.dto.UserRequestDto;
 import com.eleks.dto.UserResponseDto;
 import com.eleks.entity.UserEntity;
 import com.eleks.exception.InvalidRequestException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -14,6 +15,13 @@ import java.util.stream.Collectors;
 @Component
 public class UserMapper {
 
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    public UserMapper(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
     public List<UserEntity> convertToEntity(List<UserRequestDto> userDtos) {
         if (Objects.isNull(userDtos) || userDtos.isEmpty()) {
             throw new InvalidRequestException("List of user requests dtos is null or empty");
@@ -53,7 +61,7 @@ public class UserMapper {
                 .dateOfBirth(userDto.getDateOfBirth())
                 .email(userDto.getEmail())
                 .receiveNotifications(userDto.getReceiveNotifications())
-                .password(Objects.nonNull(userDto.getPassword()) ? new BCryptPasswordEncoder().encode(userDto.getPassword()) : null)
+                .password(Objects.nonNull(userDto.getPassword()) ? passwordEncoder.encode(userDto.getPassword()) : null)
                 .build();
     }
 
@@ -67,7 +75,7 @@ public class UserMapper {
                 .dateOfBirth(userDto.getDateOfBirth())
                 .email(userDto.getEmail())
                 .receiveNotifications(userDto.getReceiveNotifications())
-                .password(Objects.nonNull(userDto.getPassword()) ? new BCryptPasswordEncoder().encode(userDto.getPassword()) : null)
+                .password(Objects.nonNull(userDto.getPassword()) ? passwordEncoder.encode(userDto.getPassword()) : null)
                 .build();
     }
 
@@ -1,8 +1,9 @@
 package com.eleks.service;
 
+import com.eleks.dto.UserDetailsCustom;
 import com.eleks.dto.UserLoginRequest;
 
 public interface AuthenticationService {
 
-    void authenticateUser(UserLoginRequest userLoginRequest);
+    UserDetailsCustom authenticateUser(UserLoginRequest userLoginRequest);
 }
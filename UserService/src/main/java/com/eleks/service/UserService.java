@@ -17,4 +17,6 @@ public interface UserService {
     void updateUser(Long userId, UserRequestDto userRequestDto);
 
     List<UserResponseDto> bulkSearch(UsersBulkRequestDto bulkRequestDto);
+
+    List<Long> retrieveExistingUserIds(UsersBulkRequestDto bulkRequestDto);
 }
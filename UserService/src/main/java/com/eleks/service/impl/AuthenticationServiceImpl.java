@@ -1,5 +1,6 @@
 package com.eleks.service.impl;
 
+import com.eleks.dto.UserDetailsCustom;
 import com.eleks.dto.UserLoginRequest;
 import com.eleks.service.AuthenticationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,10 +21,10 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     }
 
     @Override
-    public void authenticateUser(UserLoginRequest userLoginRequest) {
+    public UserDetailsCustom authenticateUser(UserLoginRequest userLoginRequest) {
 
         try {
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(userLoginRequest.getUserName(), userLoginRequest.getPassword()));
+            return (UserDetailsCustom) authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(userLoginRequest.getUserName(), userLoginRequest.getPassword())).getPrincipal();
         } catch (AuthenticationException ex) {
             throw new BadCredentialsException(ex.getMessage());
         }
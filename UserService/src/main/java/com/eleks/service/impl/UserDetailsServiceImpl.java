@@ -4,26 +4,73 @@ import com.eleks.dto.UserDetailsCustom;
 import com.eleks.entity.UserEntity;
 import com.eleks.exception.ResourceNotFoundException;
 import com.eleks.repository.UserRepository;
+import com.eleks.util.ExpiringLruCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, PublicMetrics {
 
     private UserRepository userRepository;
 
+    private ExpiringLruCache<String, UserDetailsCustom> userDetailsCache;
+
     @Autowired
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${users.details.cache.maxSize}") int cacheMaxSize,
+                                  @Value("${users.details.cache.ttl}") long cacheTtl) {
         this.userRepository = userRepository;
+        this.userDetailsCache = new ExpiringLruCache<>(cacheMaxSize, cacheTtl);
     }
 
     @Override
     public UserDetailsCustom loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserEntity userEntity = userRepository.findByUserName(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User entity with name: " + username + " doesn't exist"));
+        UserDetailsCustom userDetails = userDetailsCache.get(username);
+
+        if (Objects.isNull(userDetails)) {
+            UserEntity userEntity = userRepository.findByUserName(username)
+                    .orElseThrow(() -> new ResourceNotFoundException("User entity with name: " + username + " doesn't exist"));
+
+            userDetails = new UserDetailsCustom(userEntity.getUserName(), userEntity.getPassword(), userEntity.getId());
+            userDetailsCache.put(username, userDetails);
+        }
+
+        return new UserDetailsCustom(userDetails.getUsername(), userDetails.getPassword(), userDetails.getUserId());
+    }
 
-        return new UserDetailsCustom(userEntity.getUserName(), userEntity.getPassword(), userEntity.getId());
+    //inside of transaction user is evicted once more after commit, otherwise login between eviction and commit
+    //would cache old row again for the whole ttl
+    public void evictUser(String username) {
+        userDetailsCache.invalidate(username);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+                @Override
+                public void afterCommit() {
+                    userDetailsCache.invalidate(username);
+                }
+            });
+        }
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        return Arrays.asList(
+                new Metric<>("users.details.cache.hits", userDetailsCache.getHits()),
+                new Metric<>("users.details.cache.misses", userDetailsCache.getMisses()),
+                new Metric<>("users.details.cache.evictions", userDetailsCache.getEvictions()),
+                new Metric<>("users.details.cache.size", userDetailsCache.size()));
     }
 }
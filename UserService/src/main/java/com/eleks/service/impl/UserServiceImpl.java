@@ -9,14 +9,14 @@ import com.eleks.exception.ResourceNotFoundException;
 import com.eleks.mapper.UserMapper;
 import com.eleks.repository.UserRepository;
 import com.eleks.service.UserService;
+import com.eleks.util.ChunkedSearchUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 @Service
 public class UserServiceImpl implements UserService {
@@ -25,10 +25,17 @@ public class UserServiceImpl implements UserService {
 
     private UserMapper userMapper;
 
+    private ChunkedSearchUtil chunkedSearchUtil;
+
+    private UserDetailsServiceImpl userDetailsService;
+
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper) {
+    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper, ChunkedSearchUtil chunkedSearchUtil,
+                           UserDetailsServiceImpl userDetailsService) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.chunkedSearchUtil = chunkedSearchUtil;
+        this.userDetailsService = userDetailsService;
     }
 
     @Override
@@ -39,11 +46,11 @@ public class UserServiceImpl implements UserService {
 
     @Transactional
     public void deleteUser(Long userId) {
-        if (userRepository.findById(userId).isPresent()) {
-            userRepository.deleteById(userId);
-        } else {
-            throw new ResourceNotFoundException("User entity with id " + userId + " doesn't exist");
-        }
+        UserEntity userEntity = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User entity with id " + userId + " doesn't exist"));
+
+        userRepository.deleteById(userId);
+        userDetailsService.evictUser(userEntity.getUserName());
     }
 
     @Transactional
@@ -61,20 +68,21 @@ public class UserServiceImpl implements UserService {
 
     @Transactional
     public void updateUser(Long userId, UserRequestDto userRequestDto) {
-        userRepository.findById(userId).orElseThrow(() -> new ResourceNotFoundException("User entity with id " + userId + " doesn't exist"));
+        UserEntity userEntity = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User entity with id " + userId + " doesn't exist"));
 
         userRepository.save(userMapper.convertToEntity(userId, Collections.singletonList(userRequestDto)));
+        userDetailsService.evictUser(userEntity.getUserName());
+        userDetailsService.evictUser(userRequestDto.getUserName());
     }
 
     @Override
     public List<UserResponseDto> bulkSearch(UsersBulkRequestDto bulkRequestDto) {
+        return userMapper.convertToDto(chunkedSearchUtil.search(bulkRequestDto.getUserIds(), userRepository::findByIdIn, UserEntity::getId));
+    }
 
-        List<UserEntity> userEntities = bulkRequestDto.getUserIds().stream()
-                .map(userId -> userRepository.findById(userId))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
-
-        return userMapper.convertToDto(userEntities);
+    @Override
+    public List<Long> retrieveExistingUserIds(UsersBulkRequestDto bulkRequestDto) {
+        return chunkedSearchUtil.search(bulkRequestDto.getUserIds(), userRepository::findIdsByIdIn, Function.identity());
     }
 }
@@ -0,0 +1,90 @@
+package com.eleks.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class ChunkedSearchUtil {
+
+    private int chunkSize;
+
+    private int parallelism;
+
+    private ExecutorService executorService;
+
+    @Autowired
+    public ChunkedSearchUtil(@Value("${users.search.chunkSize}") int chunkSize,
+                             @Value("${users.search.parallelism}") int parallelism) {
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.executorService = this.parallelism > 1 ? Executors.newFixedThreadPool(this.parallelism) : null;
+    }
+
+    //ids are de-duplicated and searched chunk by chunk with one IN query per chunk, results come in order of first
+    //occurrence of their ids, ids which aren't found are skipped
+    public <T> List<T> search(List<Long> ids, Function<List<Long>, List<T>> chunkSearch, Function<T, Long> idExtractor) {
+        List<Long> distinctIds = ids.stream()
+                .distinct()
+                .collect(Collectors.toList());
+
+        List<List<Long>> chunks = new ArrayList<>();
+
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            chunks.add(distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size())));
+        }
+
+        Map<Long, T> results = new HashMap<>();
+
+        searchChunks(chunks, chunkSearch).forEach(result -> results.putIfAbsent(idExtractor.apply(result), result));
+
+        return distinctIds.stream()
+                .map(results::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (Objects.nonNull(executorService)) {
+            executorService.shutdown();
+        }
+    }
+
+    private <T> List<T> searchChunks(List<List<Long>> chunks, Function<List<Long>, List<T>> chunkSearch) {
+        if (Objects.isNull(executorService) || chunks.size() < 2) {
+            return chunks.stream()
+                    .flatMap(chunk -> chunkSearch.apply(chunk).stream())
+                    .collect(Collectors.toList());
+        }
+
+        List<CompletableFuture<List<T>>> chunkSearches = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> chunkSearch.apply(chunk), executorService))
+                .collect(Collectors.toList());
+
+        try {
+            return chunkSearches.stream()
+                    .flatMap(chunkSearchResult -> chunkSearchResult.join().stream())
+                    .collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+}
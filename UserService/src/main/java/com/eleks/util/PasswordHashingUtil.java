@@ -0,0 +1,110 @@
+package com.eleks.util;
+
+import com.eleks.exception.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+//bcrypt hashing and matching run on bounded pool, so registration and login spikes can't occupy every request thread;
+//when pool and its queue are full request is rejected right away with 503
+@Component
+public class PasswordHashingUtil implements PasswordEncoder, PublicMetrics {
+
+    private BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    private long retryAfter;
+
+    private ThreadPoolExecutor hashingExecutor;
+
+    private AtomicLong hashings = new AtomicLong();
+
+    private AtomicLong hashingNanos = new AtomicLong();
+
+    private AtomicLong rejections = new AtomicLong();
+
+    @Autowired
+    public PasswordHashingUtil(@Value("${users.password.strength}") int strength,
+                               @Value("${users.password.threads}") int threads,
+                               @Value("${users.password.queueCapacity}") int queueCapacity,
+                               @Value("${users.password.retryAfter}") long retryAfter) {
+        this.bCryptPasswordEncoder = new BCryptPasswordEncoder(strength);
+        this.retryAfter = retryAfter;
+        this.hashingExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(() -> bCryptPasswordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(() -> bCryptPasswordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        long hashingsCount = hashings.get();
+
+        return Arrays.asList(
+                new Metric<>("users.password.queue", hashingExecutor.getQueue().size()),
+                new Metric<>("users.password.active", hashingExecutor.getActiveCount()),
+                new Metric<>("users.password.rejections", rejections.get()),
+                new Metric<>("users.password.hashings", hashingsCount),
+                new Metric<>("users.password.hashLatency", hashingsCount == 0 ? 0.0 : hashingNanos.get() / 1000000.0 / hashingsCount));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    private <T> T hash(Supplier<T> hashing) {
+        Future<T> result;
+
+        try {
+            result = hashingExecutor.submit(() -> {
+                long start = System.nanoTime();
+
+                try {
+                    return hashing.get();
+                } finally {
+                    hashingNanos.addAndGet(System.nanoTime() - start);
+                    hashings.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejections.incrementAndGet();
+            throw new ServiceUnavailableException("Password hashing capacity is exhausted, please retry later", retryAfter);
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Password hashing has been interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -563,4 +563,30 @@ public class UserControllerTest {
         assertEquals(400, errorResponseDtoActual.getStatusCode());
         assertNotNull(errorResponseDtoActual.getTimestamp());
     }
+
+    @Test
+    public void bulkSearchIds_usersBulkRequestDtoIsValid_shouldReturnOkHttpStatusAndExistingIds() throws Exception {
+        UsersBulkRequestDto bulkRequestDto = new UsersBulkRequestDto(Arrays.asList(1L, 4L));
+
+        when(userServiceMock.retrieveExistingUserIds(bulkRequestDto)).thenReturn(Collections.singletonList(1L));
+
+        MvcResult mvcResult = mockMvc.perform(post(USER_CONTROLLER_GENERAL_PATH + "/search/ids")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bulkRequestDto)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String responseString = mvcResult.getResponse().getContentAsString();
+        List<Long> userIdsActual = objectMapper.readValue(responseString, new TypeReference<List<Long>>() {});
+
+        assertEquals(Collections.singletonList(1L), userIdsActual);
+    }
+
+    @Test
+    public void bulkSearchIds_userIdsFieldIsEmpty_shouldReturnBadRequestHttpStatus() throws Exception {
+        mockMvc.perform(post(USER_CONTROLLER_GENERAL_PATH + "/search/ids")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new UsersBulkRequestDto(Collections.emptyList()))))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -18,7 +18,7 @@ import java.util.List;
 
 public class UserMapperTest {
 
-    private UserMapper userMapper = new UserMapper();
+    private UserMapper userMapper = new UserMapper(new BCryptPasswordEncoder());
 
     private UserRequestDto userRequestDtoExpected;
 
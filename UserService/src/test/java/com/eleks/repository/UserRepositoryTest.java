@@ -10,6 +10,8 @@ import org.springframework.test.context.junit4.SpringRunner;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.*;
@@ -117,4 +119,22 @@ public class UserRepositoryTest {
         assertEquals(secondUserEntityExpected, secondUserEntityActual);
         assertEquals(2,  userRepository.count());
     }
+
+    @Test
+    public void findIdsByIdIn_partOfUsersExist_shouldReturnOnlyExistingIds() {
+        userRepository.save(Arrays.asList(firstUserEntityExpected, secondUserEntityExpected));
+
+        List<Long> userIdsActual = userRepository.findIdsByIdIn(Arrays.asList(secondUserEntityExpected.getId(), secondUserEntityExpected.getId() + 100));
+
+        assertEquals(Collections.singletonList(secondUserEntityExpected.getId()), userIdsActual);
+    }
+
+    @Test
+    public void findByIdIn_partOfUsersExist_shouldReturnOnlyExistingUsers() {
+        userRepository.save(Arrays.asList(firstUserEntityExpected, secondUserEntityExpected));
+
+        List<UserEntity> userEntitiesActual = userRepository.findByIdIn(Arrays.asList(firstUserEntityExpected.getId(), secondUserEntityExpected.getId() + 100));
+
+        assertEquals(Collections.singletonList(firstUserEntityExpected), userEntitiesActual);
+    }
 }
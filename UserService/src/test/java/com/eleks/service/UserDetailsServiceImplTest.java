@@ -0,0 +1,97 @@
+package com.eleks.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+import com.eleks.dto.UserDetailsCustom;
+import com.eleks.entity.UserEntity;
+import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.repository.UserRepository;
+import com.eleks.service.impl.UserDetailsServiceImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+@RunWith(MockitoJUnitRunner.class)
+public class UserDetailsServiceImplTest {
+
+    private static final String USER_NAME = "testUserName";
+
+    @Mock
+    private UserRepository userRepositoryMock;
+
+    private UserDetailsServiceImpl userDetailsService;
+
+    private UserDetailsCustom userDetailsExpected;
+
+    @Before
+    public void init() {
+        userDetailsService = new UserDetailsServiceImpl(userRepositoryMock, 10, 60000);
+        userDetailsExpected = new UserDetailsCustom(USER_NAME, "testPassword", 3L);
+
+        when(userRepositoryMock.findByUserName(USER_NAME))
+                .thenReturn(Optional.of(UserEntity.builder().id(3L).userName(USER_NAME).password("testPassword").build()));
+    }
+
+    @Test
+    public void loadUserByUsername_userIsLoadedTwice_shouldQueryRepositoryOnce() {
+        assertEquals(userDetailsExpected, userDetailsService.loadUserByUsername(USER_NAME));
+        assertEquals(userDetailsExpected, userDetailsService.loadUserByUsername(USER_NAME));
+
+        verify(userRepositoryMock).findByUserName(USER_NAME);
+    }
+
+    @Test
+    public void loadUserByUsername_returnedUserDetailsAreModified_shouldNotAffectCachedUserDetails() {
+        userDetailsService.loadUserByUsername(USER_NAME).setPassword(null);
+
+        assertEquals(userDetailsExpected, userDetailsService.loadUserByUsername(USER_NAME));
+    }
+
+    @Test
+    public void loadUserByUsername_userIsEvicted_shouldQueryRepositoryAgain() {
+        userDetailsService.loadUserByUsername(USER_NAME);
+        userDetailsService.evictUser(USER_NAME);
+        userDetailsService.loadUserByUsername(USER_NAME);
+
+        verify(userRepositoryMock, times(2)).findByUserName(USER_NAME);
+    }
+
+    @Test
+    public void loadUserByUsername_userIsLoadedBetweenEvictionAndCommit_shouldQueryRepositoryAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            userDetailsService.evictUser(USER_NAME);
+            userDetailsService.loadUserByUsername(USER_NAME);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        userDetailsService.loadUserByUsername(USER_NAME);
+
+        verify(userRepositoryMock, times(2)).findByUserName(USER_NAME);
+    }
+
+    @Test
+    public void loadUserByUsername_userDoesNotExist_shouldThrowResourceNotFoundExceptionAndNotCacheIt() {
+        when(userRepositoryMock.findByUserName("unknownUserName")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("unknownUserName"))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("User entity with name: unknownUserName doesn't exist");
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("unknownUserName"))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        verify(userRepositoryMock, times(2)).findByUserName("unknownUserName");
+    }
+}
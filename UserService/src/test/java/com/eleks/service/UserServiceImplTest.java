@@ -12,12 +12,15 @@ import com.eleks.exception.InvalidRequestException;
 import com.eleks.exception.ResourceNotFoundException;
 import com.eleks.mapper.UserMapper;
 import com.eleks.repository.UserRepository;
+import com.eleks.service.impl.UserDetailsServiceImpl;
 import com.eleks.service.impl.UserServiceImpl;
+import com.eleks.util.ChunkedSearchUtil;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.time.LocalDate;
@@ -36,6 +39,12 @@ public class UserServiceImplTest {
     @Mock
     UserRepository userRepositoryMock;
 
+    @Mock
+    private UserDetailsServiceImpl userDetailsServiceMock;
+
+    @Spy
+    private ChunkedSearchUtil chunkedSearchUtil = new ChunkedSearchUtil(2, 1);
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -90,11 +99,12 @@ public class UserServiceImplTest {
 
     @Test
     public void deleteUser_userExistInDb_shouldInvokeRepositoryMethodSaveOnce() {
-        when(userRepositoryMock.findById(USER_ID)).thenReturn(Optional.of(new UserEntity()));
+        when(userRepositoryMock.findById(USER_ID)).thenReturn(Optional.of(userEntityExpected));
 
         userService.deleteUser(USER_ID);
 
         verify(userRepositoryMock).deleteById(USER_ID);
+        verify(userDetailsServiceMock).evictUser("testUserName");
     }
 
     @Test
@@ -133,6 +143,16 @@ public class UserServiceImplTest {
         verify(userRepositoryMock).save(Collections.singletonList(userEntityExpected));
     }
 
+    @Test
+    public void updateUser_userNameIsChanged_shouldEvictOldAndNewUserNameFromUserDetailsCache() {
+        when(userRepositoryMock.findById(USER_ID)).thenReturn(Optional.of(UserEntity.builder().id(USER_ID).userName("oldUserName").build()));
+
+        userService.updateUser(USER_ID, userRequestDtoExpected);
+
+        verify(userDetailsServiceMock).evictUser("oldUserName");
+        verify(userDetailsServiceMock).evictUser("testUserName");
+    }
+
     @Test
     public void updateUser_userDtoDoesNotExist_shouldThrowResourceNotFoundException() {
         when(userRepositoryMock.findById(USER_ID)).thenReturn(Optional.empty());
@@ -150,8 +170,7 @@ public class UserServiceImplTest {
         UserResponseDto userResponseDtoExpectedSecond = new UserResponseDto(2L, "testUserName", "testFirstName", "testLastName",
                 LocalDate.of(2010, 1, 1), "testEmail", true);
 
-        when(userRepositoryMock.findById(3L)).thenReturn(Optional.of(userEntityExpected));
-        when(userRepositoryMock.findById(2L)).thenReturn(Optional.of(userEntityExpectedSecond));
+        when(userRepositoryMock.findByIdIn(Arrays.asList(3L, 2L))).thenReturn(Arrays.asList(userEntityExpectedSecond, userEntityExpected));
         when(userMapperMock.convertToDto(Arrays.asList(userEntityExpected, userEntityExpectedSecond)))
                 .thenReturn(Arrays.asList(userResponseDtoExpected, userResponseDtoExpectedSecond));
 
@@ -160,10 +179,31 @@ public class UserServiceImplTest {
 
     @Test
     public void bulkSearch_usersWithListedIdsDoNotExist_shouldReturnEmptyListOfUsers() {
-        when(userRepositoryMock.findById(3L)).thenReturn(Optional.empty());
-        when(userRepositoryMock.findById(2L)).thenReturn(Optional.empty());
+        when(userRepositoryMock.findByIdIn(Arrays.asList(3L, 2L))).thenReturn(Collections.emptyList());
         when(userMapperMock.convertToDto(Collections.emptyList())).thenReturn(Collections.emptyList());
 
         assertEquals(Collections.emptyList(), userService.bulkSearch(new UsersBulkRequestDto(Arrays.asList(3L, 2L))));
     }
+
+    @Test
+    public void bulkSearch_idsExceedChunkSize_shouldSearchDistinctIdsChunkByChunk() {
+        UserEntity userEntityExpectedSecond = UserEntity.builder().id(2L).build();
+        UserEntity userEntityExpectedFourth = UserEntity.builder().id(4L).build();
+
+        when(userRepositoryMock.findByIdIn(Arrays.asList(4L, 3L))).thenReturn(Arrays.asList(userEntityExpected, userEntityExpectedFourth));
+        when(userRepositoryMock.findByIdIn(Collections.singletonList(2L))).thenReturn(Collections.singletonList(userEntityExpectedSecond));
+
+        userService.bulkSearch(new UsersBulkRequestDto(Arrays.asList(4L, 3L, 4L, 2L)));
+
+        verify(userMapperMock).convertToDto(Arrays.asList(userEntityExpectedFourth, userEntityExpected, userEntityExpectedSecond));
+        verify(userRepositoryMock, times(2)).findByIdIn(anyCollectionOf(Long.class));
+    }
+
+    @Test
+    public void retrieveExistingUserIds_partOfUsersExist_shouldReturnDistinctExistingIdsInRequestedOrder() {
+        when(userRepositoryMock.findIdsByIdIn(Arrays.asList(3L, 2L))).thenReturn(Arrays.asList(2L, 3L));
+        when(userRepositoryMock.findIdsByIdIn(Collections.singletonList(7L))).thenReturn(Collections.emptyList());
+
+        assertEquals(Arrays.asList(3L, 2L), userService.retrieveExistingUserIds(new UsersBulkRequestDto(Arrays.asList(3L, 2L, 7L, 3L))));
+    }
 }
@@ -0,0 +1,62 @@
+package com.eleks.util;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+
+public class ChunkedSearchUtilTest {
+
+    private ChunkedSearchUtil chunkedSearchUtil;
+
+    @After
+    public void destroy() {
+        chunkedSearchUtil.shutdown();
+    }
+
+    @Test
+    public void search_idsWithDuplicates_shouldSearchDistinctIdsInChunks() {
+        chunkedSearchUtil = new ChunkedSearchUtil(2, 1);
+        List<List<Long>> chunks = new ArrayList<>();
+
+        chunkedSearchUtil.search(Arrays.asList(5L, 1L, 5L, 3L, 2L), chunk -> {
+            chunks.add(new ArrayList<>(chunk));
+            return chunk;
+        }, Function.identity());
+
+        assertEquals(Arrays.asList(Arrays.asList(5L, 1L), Arrays.asList(3L, 2L)), chunks);
+    }
+
+    @Test
+    public void search_chunksSearchedInParallel_shouldReturnResultsInOrderOfIdsSkippingMissingOnes() {
+        chunkedSearchUtil = new ChunkedSearchUtil(2, 3);
+
+        List<Long> resultsActual = chunkedSearchUtil.search(Arrays.asList(7L, 1L, 6L, 2L, 5L, 3L, 1L), chunk -> {
+            List<Long> foundIds = new ArrayList<>(chunk);
+            foundIds.remove(Long.valueOf(6L));
+            Collections.reverse(foundIds);
+
+            return foundIds;
+        }, Function.identity());
+
+        assertEquals(Arrays.asList(7L, 1L, 2L, 5L, 3L), resultsActual);
+    }
+
+    @Test
+    public void search_chunkSearchFailedInParallel_shouldRethrowException() {
+        chunkedSearchUtil = new ChunkedSearchUtil(1, 2);
+
+        assertThatThrownBy(() -> chunkedSearchUtil.search(Arrays.asList(1L, 2L), chunk -> {
+            throw new IllegalStateException("testMessage");
+        }, Function.identity()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("testMessage");
+    }
+}
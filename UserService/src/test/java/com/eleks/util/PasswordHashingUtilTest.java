@@ -0,0 +1,115 @@
+package com.eleks.util;
+
+import com.eleks.exception.ServiceUnavailableException;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PasswordHashingUtilTest {
+
+    private PasswordHashingUtil passwordHashingUtil;
+
+    @After
+    public void destroy() {
+        passwordHashingUtil.shutdown();
+    }
+
+    @Test
+    public void matches_passwordEncodedBefore_shouldMatchOnlySamePasswordAndCountHashings() {
+        passwordHashingUtil = new PasswordHashingUtil(4, 1, 1, 1);
+
+        String encodedPassword = passwordHashingUtil.encode("testPassword");
+
+        assertTrue(passwordHashingUtil.matches("testPassword", encodedPassword));
+        assertFalse(passwordHashingUtil.matches("otherPassword", encodedPassword));
+        assertTrue(encodedPassword.startsWith("$2a$04$"));
+        assertEquals(3L, metrics().get("users.password.hashings"));
+    }
+
+    @Test
+    public void encode_poolAndQueueAreFull_shouldThrowServiceUnavailableExceptionAndCountRejection() throws Exception {
+        passwordHashingUtil = new PasswordHashingUtil(4, 1, 1, 2);
+
+        CountDownLatch hashingStarted = new CountDownLatch(1);
+        CountDownLatch hashingReleased = new CountDownLatch(1);
+
+        String encodedPassword = new BCryptPasswordEncoder(4).encode("testPassword");
+
+        CompletableFuture<Boolean> blockingHashing = CompletableFuture.supplyAsync(() ->
+                passwordHashingUtil.matches(new BlockingPassword(hashingStarted, hashingReleased), encodedPassword));
+        hashingStarted.await();
+        CompletableFuture<String> queuedHashing = CompletableFuture.supplyAsync(() -> passwordHashingUtil.encode("testPassword"));
+
+        while (metrics().get("users.password.queue").intValue() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertThatThrownBy(() -> passwordHashingUtil.encode("testPassword"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessage("Password hashing capacity is exhausted, please retry later");
+        assertEquals(1L, metrics().get("users.password.rejections"));
+
+        hashingReleased.countDown();
+        blockingHashing.join();
+        queuedHashing.join();
+    }
+
+    private Map<String, Number> metrics() {
+        return passwordHashingUtil.metrics().stream()
+                .collect(Collectors.toMap(Metric::getName, Metric::getValue));
+    }
+
+    //raw password is read by bcrypt on hashing thread, so reading it keeps that thread busy until released
+    private static class BlockingPassword implements CharSequence {
+
+        private static final String PASSWORD = "testPassword";
+
+        private final CountDownLatch hashingStarted;
+
+        private final CountDownLatch hashingReleased;
+
+        private BlockingPassword(CountDownLatch hashingStarted, CountDownLatch hashingReleased) {
+            this.hashingStarted = hashingStarted;
+            this.hashingReleased = hashingReleased;
+        }
+
+        @Override
+        public int length() {
+            return PASSWORD.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return PASSWORD.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return PASSWORD.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            hashingStarted.countDown();
+
+            try {
+                hashingReleased.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return PASSWORD;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.eleks.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfter;
+
+    public ServiceUnavailableException(String message, long retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
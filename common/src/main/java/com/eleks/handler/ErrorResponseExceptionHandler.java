@@ -3,7 +3,9 @@ package com.eleks.handler;
 import com.eleks.dto.ErrorResponseDto;
 import com.eleks.exception.InvalidRequestException;
 import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.exception.ServiceUnavailableException;
 import com.eleks.exception.UserServiceException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -39,6 +41,14 @@ public class ErrorResponseExceptionHandler {
         return new ResponseEntity<>(new ErrorResponseDto(404, ex.getMessage(), LocalDate.now()), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public final ResponseEntity<ErrorResponseDto> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter()));
+
+        return new ResponseEntity<>(new ErrorResponseDto(503, ex.getMessage(), LocalDate.now()), headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public final ResponseEntity<ErrorResponseDto> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
         return new ResponseEntity<>(new ErrorResponseDto(400, messageForMethodArgumentNotValidException(ex), LocalDate.now()), HttpStatus.BAD_REQUEST);
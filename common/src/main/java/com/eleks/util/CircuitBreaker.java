@@ -0,0 +1,103 @@
+package com.eleks.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//opens after failureThreshold consecutive failures, after openDuration lets single trial call through and closes if it succeeds
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureThreshold;
+
+    private final long openDurationMillis;
+
+    private final LongSupplier currentTimeMillis;
+
+    private State state = State.CLOSED;
+
+    private int consecutiveFailures;
+
+    private long openedAt;
+
+    private boolean trialInProgress;
+
+    private final AtomicLong openings = new AtomicLong();
+
+    private final AtomicLong halfOpenings = new AtomicLong();
+
+    private final AtomicLong closings = new AtomicLong();
+
+    private final AtomicLong rejections = new AtomicLong();
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis) {
+        this(failureThreshold, openDurationMillis, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openDurationMillis, LongSupplier currentTimeMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMillis = openDurationMillis;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && currentTimeMillis.getAsLong() - openedAt >= openDurationMillis) {
+            state = State.HALF_OPEN;
+            halfOpenings.incrementAndGet();
+        }
+
+        if (state == State.OPEN || (state == State.HALF_OPEN && trialInProgress)) {
+            rejections.incrementAndGet();
+            return false;
+        }
+
+        if (state == State.HALF_OPEN) {
+            trialInProgress = true;
+        }
+
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+
+        if (state == State.HALF_OPEN) {
+            trialInProgress = false;
+            state = State.CLOSED;
+            closings.incrementAndGet();
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            trialInProgress = false;
+            state = State.OPEN;
+            openedAt = currentTimeMillis.getAsLong();
+            openings.incrementAndGet();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getOpenings() {
+        return openings.get();
+    }
+
+    public long getHalfOpenings() {
+        return halfOpenings.get();
+    }
+
+    public long getClosings() {
+        return closings.get();
+    }
+
+    public long getRejections() {
+        return rejections.get();
+    }
+}
@@ -0,0 +1,110 @@
+package com.eleks.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+public class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+
+    private final long ttlMillis;
+
+    private final LongSupplier currentTimeMillis;
+
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ExpiringLruCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    public ExpiringLruCache(int maxSize, long ttlMillis, LongSupplier currentTimeMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.currentTimeMillis = currentTimeMillis;
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                boolean isFull = size() > ExpiringLruCache.this.maxSize;
+
+                if (isFull) {
+                    evictions.incrementAndGet();
+                }
+
+                return isFull;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        CacheEntry<V> cacheEntry = entries.get(key);
+
+        if (Objects.nonNull(cacheEntry) && cacheEntry.expiresAt <= currentTimeMillis.getAsLong()) {
+            entries.remove(key);
+            evictions.incrementAndGet();
+            cacheEntry = null;
+        }
+
+        if (Objects.isNull(cacheEntry)) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        return cacheEntry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttlMillis);
+    }
+
+    //entry lives for the shorter of its own and cache ttl
+    public synchronized void put(K key, V value, long entryTtlMillis) {
+        entries.put(key, new CacheEntry<>(value, currentTimeMillis.getAsLong() + Math.min(entryTtlMillis, ttlMillis)));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private static class CacheEntry<V> {
+
+        private final V value;
+
+        private final long expiresAt;
+
+        private CacheEntry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
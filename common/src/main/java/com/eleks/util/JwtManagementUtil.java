@@ -2,8 +2,11 @@ package com.eleks.util;
 
 import com.eleks.dto.UserPrincipal;
 import com.eleks.exception.InvalidRequestException;
+import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
@@ -15,19 +18,36 @@ import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Objects;
 
 @Component
 public class JwtManagementUtil {
 
-    private String jwtSecret;
-
     private Integer jwtValidInterval;
 
+    private JWSSigner jwsSigner;
+
+    private JWSVerifier jwsVerifier;
+
+    private ExpiringLruCache<String, UserPrincipal> verifiedJwtCache;
+
     @Autowired
-    public JwtManagementUtil(@Value("${jwt.secret}") String jwtSecret, @Value("${jwt.validInterval}") Integer jwtValidInterval) {
-        this.jwtSecret = jwtSecret;
+    public JwtManagementUtil(@Value("${jwt.secret}") String jwtSecret, @Value("${jwt.validInterval}") Integer jwtValidInterval,
+                             @Value("${jwt.cache.maxSize}") int cacheMaxSize, @Value("${jwt.cache.ttl}") long cacheTtl) {
         this.jwtValidInterval = jwtValidInterval;
+        this.verifiedJwtCache = new ExpiringLruCache<>(cacheMaxSize, cacheTtl);
+
+        try {
+            byte[] jwtKey = MessageDigest.getInstance("SHA-256").digest(jwtSecret.getBytes(StandardCharsets.UTF_8));
+
+            this.jwsSigner = new MACSigner(jwtKey);
+            this.jwsVerifier = new MACVerifier(jwtKey);
+        } catch (NoSuchAlgorithmException | JOSEException ex) {
+            throw new IllegalStateException("Jwt key can't be created", ex);
+        }
     }
 
     public String generateJwt(String username, Long userId) throws InvalidRequestException {
@@ -46,7 +66,7 @@ public class JwtManagementUtil {
         SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claimsSet);
 
         try {
-            signedJWT.sign(new MACSigner(MessageDigest.getInstance("SHA-256").digest(jwtSecret.getBytes(StandardCharsets.UTF_8))));
+            signedJWT.sign(jwsSigner);
         } catch (Exception ex) {
             throw new InvalidRequestException(ex.getMessage());
         }
@@ -54,9 +74,17 @@ public class JwtManagementUtil {
         return signedJWT.serialize();
     }
 
+    //verified jwt is cached by its digest until it expires, so repeated requests with the same jwt skip parsing and signature check
     public UserPrincipal retrieveUserPrincipalFromJwt(String jwt) throws AuthenticationServiceException {
 
         try {
+            String jwtDigest = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.UTF_8)));
+            UserPrincipal cachedUserPrincipal = verifiedJwtCache.get(jwtDigest);
+
+            if (Objects.nonNull(cachedUserPrincipal)) {
+                return new UserPrincipal(cachedUserPrincipal.getUsername(), cachedUserPrincipal.getUserId());
+            }
+
             SignedJWT signedJwt = SignedJWT.parse(jwt);
 
             verifyJwt(signedJwt);
@@ -65,6 +93,9 @@ public class JwtManagementUtil {
             String username = jwtClaims.getStringClaim("username");
             Long userId = jwtClaims.getLongClaim("userId");
 
+            verifiedJwtCache.put(jwtDigest, new UserPrincipal(username, userId),
+                    jwtClaims.getExpirationTime().getTime() - System.currentTimeMillis());
+
             return new UserPrincipal(username, userId);
         } catch (Exception ex) {
             throw new AuthenticationServiceException(ex.getMessage());
@@ -73,8 +104,7 @@ public class JwtManagementUtil {
 
     private void verifyJwt(SignedJWT signedJwt) throws Exception {
 
-        boolean verifyJwt = signedJwt.verify(new MACVerifier(MessageDigest.getInstance("SHA-256")
-                .digest(jwtSecret.getBytes(StandardCharsets.UTF_8))));
+        boolean verifyJwt = signedJwt.verify(jwsVerifier);
 
         if (!verifyJwt) {
             throw new InvalidRequestException("The JWT signature is invalid.");
@@ -3,8 +3,10 @@ package com.eleks.handler;
 import com.eleks.dto.ErrorResponseDto;
 import com.eleks.exception.InvalidRequestException;
 import com.eleks.exception.ResourceNotFoundException;
+import com.eleks.exception.ServiceUnavailableException;
 import com.eleks.exception.UserServiceException;
 import org.junit.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -44,6 +46,16 @@ public class ErrorResponseExceptionHandlerTest {
                 LocalDate.of(2010, 1, 1)), HttpStatus.INTERNAL_SERVER_ERROR), responseEntityActual);
     }
 
+    @Test
+    public void handleServiceUnavailableException_shouldReturnProperResponseEntityWithServiceUnavailableStatusAndRetryAfter() {
+        ResponseEntity<ErrorResponseDto> responseEntityActual =
+                errorResponseExceptionHandler.handleServiceUnavailableException(new ServiceUnavailableException("testMessage", 2));
+
+        compareResponses(new ResponseEntity<>(new ErrorResponseDto(503, "testMessage",
+                LocalDate.of(2010, 1, 1)), HttpStatus.SERVICE_UNAVAILABLE), responseEntityActual);
+        assertEquals("2", responseEntityActual.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
     private void compareResponses(ResponseEntity<ErrorResponseDto> responseEntityExpected, ResponseEntity<ErrorResponseDto> responseEntityActual) {
         assertEquals(responseEntityExpected.getStatusCode(), responseEntityActual.getStatusCode());
         assertEquals(responseEntityExpected.getBody().getMessage(), responseEntityActual.getBody().getMessage());
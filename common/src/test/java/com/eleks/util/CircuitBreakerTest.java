@@ -0,0 +1,77 @@
+package com.eleks.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    private AtomicLong currentTimeMillis = new AtomicLong();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker(2, 1000, currentTimeMillis::get);
+
+    @Test
+    public void onFailure_failuresBelowThreshold_shouldStayClosed() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void tryAcquire_failureThresholdReached_shouldRejectCallsAndCountRejections() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(1, circuitBreaker.getOpenings());
+        assertEquals(1, circuitBreaker.getRejections());
+    }
+
+    @Test
+    public void tryAcquire_openDurationElapsed_shouldLetThroughSingleTrialCall() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        currentTimeMillis.set(1000);
+
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getHalfOpenings());
+    }
+
+    @Test
+    public void onSuccess_trialCallSucceeded_shouldClose() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        currentTimeMillis.set(1000);
+        circuitBreaker.tryAcquire();
+
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getClosings());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void onFailure_trialCallFailed_shouldOpenAgain() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        currentTimeMillis.set(1000);
+        circuitBreaker.tryAcquire();
+
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2, circuitBreaker.getOpenings());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+}
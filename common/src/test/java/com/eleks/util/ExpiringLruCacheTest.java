@@ -0,0 +1,76 @@
+package com.eleks.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExpiringLruCacheTest {
+
+    private AtomicLong currentTimeMillis = new AtomicLong();
+
+    private ExpiringLruCache<Long, String> expiringLruCache = new ExpiringLruCache<>(2, 1000, currentTimeMillis::get);
+
+    @Test
+    public void get_valuePutBefore_shouldReturnValueAndCountHit() {
+        expiringLruCache.put(1L, "testValue");
+
+        assertEquals("testValue", expiringLruCache.get(1L));
+        assertEquals(1, expiringLruCache.getHits());
+        assertEquals(0, expiringLruCache.getMisses());
+    }
+
+    @Test
+    public void get_ttlElapsed_shouldReturnNullAndCountMissAndEviction() {
+        expiringLruCache.put(1L, "testValue");
+        currentTimeMillis.set(1000);
+
+        assertNull(expiringLruCache.get(1L));
+        assertEquals(1, expiringLruCache.getMisses());
+        assertEquals(1, expiringLruCache.getEvictions());
+        assertEquals(0, expiringLruCache.size());
+    }
+
+    @Test
+    public void get_entryTtlShorterThanCacheTtlElapsed_shouldReturnNull() {
+        expiringLruCache.put(1L, "testValue", 100);
+        currentTimeMillis.set(100);
+
+        assertNull(expiringLruCache.get(1L));
+    }
+
+    @Test
+    public void get_entryTtlLongerThanCacheTtl_shouldExpireWithCacheTtl() {
+        expiringLruCache.put(1L, "testValue", 5000);
+        currentTimeMillis.set(999);
+
+        assertEquals("testValue", expiringLruCache.get(1L));
+
+        currentTimeMillis.set(1000);
+
+        assertNull(expiringLruCache.get(1L));
+    }
+
+    @Test
+    public void put_cacheIsFull_shouldEvictLeastRecentlyUsedValue() {
+        expiringLruCache.put(1L, "testValueFirst");
+        expiringLruCache.put(2L, "testValueSecond");
+        expiringLruCache.get(1L);
+        expiringLruCache.put(3L, "testValueThird");
+
+        assertNull(expiringLruCache.get(2L));
+        assertEquals("testValueFirst", expiringLruCache.get(1L));
+        assertEquals("testValueThird", expiringLruCache.get(3L));
+        assertEquals(1, expiringLruCache.getEvictions());
+    }
+
+    @Test
+    public void invalidate_valuePutBefore_shouldRemoveValue() {
+        expiringLruCache.put(1L, "testValue");
+        expiringLruCache.invalidate(1L);
+
+        assertNull(expiringLruCache.get(1L));
+    }
+}
@@ -0,0 +1,48 @@
+package com.eleks.util;
+
+import com.eleks.dto.UserPrincipal;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+
+public class JwtManagementUtilTest {
+
+    private JwtManagementUtil jwtManagementUtil = new JwtManagementUtil("testSecret", 60000, 100, 60000);
+
+    @Test
+    public void retrieveUserPrincipalFromJwt_jwtGeneratedWithSameSecret_shouldReturnPrincipal() {
+        String jwt = jwtManagementUtil.generateJwt("testUserName", 3L);
+
+        assertEquals(new UserPrincipal("testUserName", 3L), jwtManagementUtil.retrieveUserPrincipalFromJwt(jwt));
+        assertEquals(new UserPrincipal("testUserName", 3L), jwtManagementUtil.retrieveUserPrincipalFromJwt(jwt));
+    }
+
+    @Test
+    public void retrieveUserPrincipalFromJwt_cachedPrincipalModifiedByCaller_shouldReturnOriginalPrincipal() {
+        String jwt = jwtManagementUtil.generateJwt("testUserName", 3L);
+
+        jwtManagementUtil.retrieveUserPrincipalFromJwt(jwt).setUserId(7L);
+
+        assertEquals(new UserPrincipal("testUserName", 3L), jwtManagementUtil.retrieveUserPrincipalFromJwt(jwt));
+    }
+
+    @Test
+    public void retrieveUserPrincipalFromJwt_jwtSignedWithOtherSecret_shouldThrowAuthenticationServiceException() {
+        String jwt = new JwtManagementUtil("otherSecret", 60000, 100, 60000).generateJwt("testUserName", 3L);
+
+        assertThatThrownBy(() -> jwtManagementUtil.retrieveUserPrincipalFromJwt(jwt))
+                .isInstanceOf(AuthenticationServiceException.class)
+                .hasMessage("The JWT signature is invalid.");
+    }
+
+    @Test
+    public void retrieveUserPrincipalFromJwt_jwtHasExpired_shouldThrowAuthenticationServiceException() {
+        String jwt = new JwtManagementUtil("testSecret", -1000, 100, 60000).generateJwt("testUserName", 3L);
+
+        assertThatThrownBy(() -> jwtManagementUtil.retrieveUserPrincipalFromJwt(jwt))
+                .isInstanceOf(AuthenticationServiceException.class)
+                .hasMessage("Jwt has expired.");
+    }
+}